@@ -52,6 +52,10 @@ public class ComparableCallback implements Comparable<ComparableCallback>, Runna
         return this.entityId;
     }
 
+    public int getPhase() {
+        return v;
+    }
+
     public void invalidate() {
         this.isValid = false;
     }
@@ -16,6 +16,8 @@ import dungeonmania.entities.JSONFactory;
 import dungeonmania.exceptions.InvalidActionException;
 import dungeonmania.response.models.DungeonResponse;
 import dungeonmania.response.models.ResponseBuilder;
+import dungeonmania.response.models.SimulationResponse;
+import dungeonmania.response.models.TickSample;
 import dungeonmania.util.Direction;
 import dungeonmania.util.FileLoader;
 
@@ -49,6 +51,20 @@ public class DungeonManiaController {
      * /game/new
      */
     public DungeonResponse newGame(String dungeonName, String configName) throws IllegalArgumentException {
+        return newGame(dungeonName, configName, new GameBuilder());
+    }
+
+    /**
+     * /game/new, with the game's randomness seeded so that playing it the
+     * same way again plays out the same
+     */
+    public DungeonResponse newGame(String dungeonName, String configName, long seed)
+            throws IllegalArgumentException {
+        return newGame(dungeonName, configName, new GameBuilder().setSeed(seed));
+    }
+
+    private DungeonResponse newGame(String dungeonName, String configName, GameBuilder builder)
+            throws IllegalArgumentException {
         if (!dungeons().contains(dungeonName)) {
             throw new IllegalArgumentException(dungeonName + " is not a dungeon that exists");
         }
@@ -58,7 +74,6 @@ public class DungeonManiaController {
         }
 
         try {
-            GameBuilder builder = new GameBuilder();
             game = builder.setConfigName(configName).setDungeonName(dungeonName).buildGame();
             config = configName;
             return ResponseBuilder.getDungeonResponse(game);
@@ -107,6 +122,17 @@ public class DungeonManiaController {
         return ResponseBuilder.getDungeonResponse(game.interact(entityId));
     }
 
+    /**
+     * Take actions one tick each, responding only with the state after the
+     * last and a sample every sampleInterval ticks (0 for none)
+     */
+    public SimulationResponse runTicks(List<GameAction> actions, int sampleInterval)
+            throws IllegalArgumentException, InvalidActionException {
+        List<TickSample> samples = new ArrayList<>();
+        game.runTicks(actions, sampleInterval, samples::add);
+        return new SimulationResponse(ResponseBuilder.getDungeonResponse(game), samples);
+    }
+
     /**
      * /game/save
      */
@@ -213,7 +239,8 @@ public class DungeonManiaController {
         }
         GameBuilder builder = new GameBuilder();
         builder.setConfigName(config);
-        Game gameRewinded = builder.buildGameFromState(game.getRewindedGameState(ticks), game, ticks);
+        int back = game.getRewindTicks(ticks);
+        Game gameRewinded = builder.buildGameFromState(game.getRewindedGameState(back), game, back);
         return ResponseBuilder.getDungeonResponse(gameRewinded);
     }
 
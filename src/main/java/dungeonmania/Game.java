@@ -2,8 +2,8 @@ package dungeonmania;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.PriorityQueue;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import org.json.JSONObject;
 
@@ -19,13 +19,14 @@ import dungeonmania.entities.Player;
 import dungeonmania.entities.collectables.Treasure;
 import dungeonmania.entities.collectables.potions.Potion;
 import dungeonmania.entities.enemies.Enemy;
-import dungeonmania.entities.enemies.Mercenary;
 import dungeonmania.entities.enemies.ZombieToastSpawner;
 import dungeonmania.entities.inventory.InventoryItem;
 import dungeonmania.exceptions.InvalidActionException;
 import dungeonmania.goals.Goal;
 import dungeonmania.map.GameMap;
+import dungeonmania.response.models.TickSample;
 import dungeonmania.util.Direction;
+import dungeonmania.util.GameRandom;
 import dungeonmania.util.Position;
 
 public class Game {
@@ -37,17 +38,23 @@ public class Game {
     private BattleFacade battleFacade;
     private int initialTreasureCount;
     private EntityFactory entityFactory;
+    private GameRandom random = GameRandom.unseeded();
     private boolean isInTick = false;
     public static final int PLAYER_MOVEMENT = 0;
     public static final int PLAYER_MOVEMENT_CALLBACK = 1;
     public static final int AI_MOVEMENT = 2;
     public static final int AI_MOVEMENT_CALLBACK = 3;
+    // runTicks still keeps the state of every tick that is a multiple of this
+    public static final int KEPT_STATE_INTERVAL = 10;
 
+    // by tick, null for the ticks runTicks did not keep
     private List<JSONObject> gameStates = new ArrayList<>();
+    private boolean keepStates = true;
 
     private int tickCount = 0;
-    private PriorityQueue<ComparableCallback> sub = new PriorityQueue<>();
-    private PriorityQueue<ComparableCallback> addingSub = new PriorityQueue<>();
+    private TickScheduler scheduler = new TickScheduler();
+    // wakes the player when the potion in effect wears off
+    private ComparableCallback potionTrigger = null;
 
     public Game(String dungeonName) {
         this.name = dungeonName;
@@ -60,30 +67,39 @@ public class Game {
         map.init(gameState);
         battleFacade.setBattleResponses(JSONFactory.jsonToBattleResponses(
             gameState.getJSONArray("battleFacade")));
+        loadRandom(gameState);
         player = map.getPlayer();
-        register(() -> player.onTick(tickCount), PLAYER_MOVEMENT, "potionQueue");
+        schedulePotionTrigger();
     }
 
     public void initFromLoad(JSONObject json) {
         this.id = UUID.randomUUID().toString();
-        map.init(json);
         this.tickCount = json.getInt("tickCount");
+        map.init(json);
         this.isInTick = json.getBoolean("isInTick");
         battleFacade.setBattleResponses(JSONFactory.jsonToBattleResponses(
             json.getJSONArray("battleFacade")));
+        loadRandom(json);
         player = map.getPlayer();
-        register(() -> player.onTick(tickCount), PLAYER_MOVEMENT, "potionQueue");
+        schedulePotionTrigger();
         initialTreasureCount = json.getInt("initialTreasureCount");
         gameStates.add(JSONFactory.constructJSON(this));
     }
 
+    // states saved before there was a seed keep the randomness the game has
+    private void loadRandom(JSONObject json) {
+        JSONObject randomJson = json.optJSONObject("random");
+        if (randomJson != null)
+            random = JSONFactory.jsonToRandom(randomJson);
+    }
+
     public void init() {
         this.id = UUID.randomUUID().toString();
         map.init();
         this.tickCount = 0;
         player = map.getPlayer();
-        register(() -> player.onTick(tickCount), PLAYER_MOVEMENT, "potionQueue");
-        initialTreasureCount = map.getEntities(Treasure.class).size();
+        schedulePotionTrigger();
+        initialTreasureCount = (int) map.countEntities(Treasure.class);
         gameStates.add(JSONFactory.constructJSON(this));
     }
 
@@ -128,8 +144,10 @@ public class Game {
         registerOnce(() -> {
             if (item instanceof Bomb)
                 player.use((Bomb) item, map);
-            if (item instanceof Potion)
+            if (item instanceof Potion) {
                 player.use((Potion) item, tickCount);
+                schedulePotionTrigger();
+            }
         }, PLAYER_MOVEMENT, "playerUsesItem");
         tick();
         return this;
@@ -186,49 +204,108 @@ public class Game {
         return this;
     }
 
+    /**
+     * Take actions one tick each, keeping the state of only every
+     * KEPT_STATE_INTERVAL-th tick and the last. Rewinding to a tick in
+     * between goes back to the last state kept before it, see getRewindTicks.
+     * Stops early if the player dies.
+     */
+    public Game runTicks(List<GameAction> actions) throws IllegalArgumentException, InvalidActionException {
+        return runTicks(actions, 0, null);
+    }
+
+    /**
+     * @param sampleInterval ticks between samples passed to sampler, 0 for none
+     */
+    public Game runTicks(List<GameAction> actions, int sampleInterval, Consumer<TickSample> sampler)
+            throws IllegalArgumentException, InvalidActionException {
+        if (sampleInterval < 0 || (sampleInterval > 0 && sampler == null))
+            throw new IllegalArgumentException("Samples need a positive interval and somewhere to go");
+        keepStates = false;
+        try {
+            for (GameAction action : actions) {
+                if (player.getHealth() <= 0) break;
+                action.applyTo(this);
+                if (sampleInterval > 0 && tickCount % sampleInterval == 0) sampler.accept(sample());
+            }
+        } finally {
+            keepStates = true;
+            int last = gameStates.size() - 1;
+            if (gameStates.get(last) == null) gameStates.set(last, JSONFactory.constructJSON(this));
+        }
+        return this;
+    }
+
+    private TickSample sample() {
+        return new TickSample(tickCount, player.getHealth(), player.getKillCount(),
+            map.countEntities(Enemy.class), goals.achieved(this));
+    }
+
     public <T extends PositionalEntity> long countEntities(Class<T> type) {
         return map.countEntities(type);
     }
 
-    public void register(Runnable r, int priority, String id) {
-        if (isInTick)
-            addingSub.add(new ComparableCallback(r, priority, id));
-        else
-            sub.add(new ComparableCallback(r, priority, id));
+    /**
+     * @return handle that cancels the callback when invalidated
+     */
+    public ComparableCallback register(Runnable r, int priority, String id) {
+        return scheduler.register(r, priority, id, false);
     }
 
-    public void registerOnce(Runnable r, int priority, String id) {
-        if (isInTick)
-            addingSub.add(new ComparableCallback(r, priority, id, true));
-        else
-            sub.add(new ComparableCallback(r, priority, id, true));
+    public ComparableCallback registerOnce(Runnable r, int priority, String id) {
+        return scheduler.register(r, priority, id, true);
     }
 
-    public void unsubscribe(String id) {
-        for (ComparableCallback c : sub) {
-            if (id.equals(c.getId())) {
-                c.invalidate();
-            }
-        }
-        for (ComparableCallback c : addingSub) {
-            if (id.equals(c.getId())) {
-                c.invalidate();
-            }
+    /**
+     * Run r once in the given phase of tick, or of the next tick if that has
+     * gone by or is running
+     * @return handle that cancels the callback when invalidated
+     */
+    public ComparableCallback schedule(Runnable r, int tick, int priority, String id) {
+        return scheduler.schedule(r, tick, priority, id);
+    }
+
+    /**
+     * Run r once in the given phase of the tick running if that is still to
+     * come, else of the next tick
+     * @return handle that cancels the callback when invalidated
+     */
+    public ComparableCallback scheduleThisTick(Runnable r, int priority, String id) {
+        return scheduler.scheduleThisTick(r, priority, id);
+    }
+
+    private void schedulePotionTrigger() {
+        if (potionTrigger != null) potionTrigger.invalidate();
+        potionTrigger = null;
+        int due;
+        if (player.getInEffective() != null) {
+            due = player.getNextTrigger();
+        } else if (!player.getQueue().isEmpty()) {
+            due = tickCount;
+        } else {
+            return;
         }
+        // a trigger that has gone by never comes round, as when checked every tick
+        if (due < tickCount) return;
+        potionTrigger = schedule(() -> {
+            player.onTick(tickCount);
+            schedulePotionTrigger();
+        }, due, PLAYER_MOVEMENT, "potionQueue");
+    }
+
+    public void unsubscribe(String id) {
+        scheduler.unsubscribe(id);
     }
 
     public int tick() {
+        map.getChanges().clear();
         isInTick = true;
-        sub.forEach(s -> s.run());
+        scheduler.runTick(tickCount);
         isInTick = false;
-        sub.addAll(addingSub);
-        addingSub = new PriorityQueue<>();
-        sub.removeIf(s -> !s.isValid());
         tickCount++;
-        // update the weapons/potions duration
-        // Update mercenaries effect
-        updateMercenariesSceptreEffect();
-        gameStates.add(JSONFactory.constructJSON(this));
+        assert map.checkIndexes();
+        boolean keep = keepStates || tickCount % KEPT_STATE_INTERVAL == 0;
+        gameStates.add(keep ? JSONFactory.constructJSON(this) : null);
         return tickCount;
     }
 
@@ -284,6 +361,14 @@ public class Game {
         this.player = player;
     }
 
+    public GameRandom getRandom() {
+        return random;
+    }
+
+    public void setRandom(GameRandom random) {
+        this.random = random;
+    }
+
     public BattleFacade getBattleFacade() {
         return battleFacade;
     }
@@ -327,14 +412,6 @@ public class Game {
         player.remove(item);
     }
 
-    public void updateMercenariesSceptreEffect() {
-        for (Mercenary mercenary: getEntities(Mercenary.class)) {
-            int remainingTime = mercenary.getRemainingSceptreEffect();
-            remainingTime--;
-            mercenary.setRemainingSceptreEffect(remainingTime);
-        }
-    }
-
     public int getPlayerKillCount() {
         return player.getKillCount();
     }
@@ -346,20 +423,31 @@ public class Game {
 
     public void removeAllEntitiesBesidesPlayer() {
         getEntities().stream().filter(e ->  !(e instanceof Player)).forEach(e -> map.destroyEntity(e));
+        map.discardUnloadedEntities();
         return;
     }
 
+    /**
+     * @return how many ticks back the state to rewind to for going back ticks
+     * is, more than ticks if runTicks did not keep that tick's state; the
+     * player's actions to replay start from the same tick
+     */
+    public int getRewindTicks(int ticks) {
+        int gameTickWanted = Math.max(tickCount - ticks, 0);
+        while (gameStates.get(gameTickWanted) == null) gameTickWanted--;
+        return tickCount - gameTickWanted;
+    }
+
+    /**
+     * @return the state kept getRewindTicks(ticks) ticks back
+     */
     public JSONObject getRewindedGameState(int ticks) {
-        int gameTickWanted = tickCount - ticks;
-        if (gameTickWanted < 0) {
-            gameTickWanted = 0;
-        }
-        return gameStates.get(gameTickWanted);
+        return gameStates.get(tickCount - getRewindTicks(ticks));
     }
 
     public void resetSubs() {
-        sub = new PriorityQueue<>();
-        addingSub = new PriorityQueue<>();
+        scheduler.clear();
+        potionTrigger = null;
     }
 
     public List<JSONObject> getPlayerActions(int ticks) {
@@ -0,0 +1,57 @@
+package dungeonmania;
+
+import dungeonmania.exceptions.InvalidActionException;
+import dungeonmania.util.Direction;
+
+/**
+ * GameAction -- what the player does in one tick (a move, using an item,
+ * building or interacting), for Game.runTicks
+ */
+public final class GameAction {
+    private enum Kind {
+        MOVE, USE, BUILD, INTERACT
+    }
+
+    private final Kind kind;
+    private final Direction direction;
+    // item id, buildable or entity id
+    private final String target;
+
+    private GameAction(Kind kind, Direction direction, String target) {
+        this.kind = kind;
+        this.direction = direction;
+        this.target = target;
+    }
+
+    public static GameAction move(Direction direction) {
+        return new GameAction(Kind.MOVE, direction, null);
+    }
+
+    public static GameAction use(String itemUsedId) {
+        return new GameAction(Kind.USE, null, itemUsedId);
+    }
+
+    public static GameAction build(String buildable) {
+        return new GameAction(Kind.BUILD, null, buildable);
+    }
+
+    public static GameAction interact(String entityId) {
+        return new GameAction(Kind.INTERACT, null, entityId);
+    }
+
+    /**
+     * Take the action, ticking game once
+     */
+    Game applyTo(Game game) throws IllegalArgumentException, InvalidActionException {
+        switch (kind) {
+            case MOVE:
+                return game.tick(direction);
+            case USE:
+                return game.tick(target);
+            case BUILD:
+                return game.build(target);
+            default:
+                return game.interact(target);
+        }
+    }
+}
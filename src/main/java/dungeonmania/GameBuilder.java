@@ -14,10 +14,16 @@ import dungeonmania.entities.OlderPlayer;
 import dungeonmania.entities.Player;
 import dungeonmania.goals.Goal;
 import dungeonmania.goals.GoalFactory;
+import dungeonmania.map.ClusterGraph;
+import dungeonmania.map.PathBudget;
+import dungeonmania.map.PathCache;
 import dungeonmania.map.GameMap;
 import dungeonmania.map.GraphNode;
 import dungeonmania.map.GraphNodeFactory;
+import dungeonmania.map.RegionPager;
 import dungeonmania.util.FileLoader;
+import dungeonmania.util.GameRandom;
+import dungeonmania.util.Position;
 
 /**
  * GameBuilder -- A builder to build up the whole game
@@ -27,6 +33,7 @@ import dungeonmania.util.FileLoader;
 public class GameBuilder {
     private String configName;
     private String dungeonName;
+    private Long seed = null;
 
     private JSONObject config;
     private JSONObject dungeon;
@@ -41,6 +48,15 @@ public class GameBuilder {
         return this;
     }
 
+    /**
+     * Seed the randomness of the game built, which otherwise gets a seed of
+     * its own
+     */
+    public GameBuilder setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
     public Game buildGameFromLoaded(JSONObject json) {
         loadConfig();
         dungeon = json;
@@ -65,6 +81,8 @@ public class GameBuilder {
         }
 
         Game game = new Game(dungeonName);
+        if (seed != null)
+            game.setRandom(new GameRandom(seed));
         EntityFactory factory = new EntityFactory(config);
         game.setEntityFactory(factory);
         buildMap(game);
@@ -96,9 +114,31 @@ public class GameBuilder {
     private void buildMap(Game game) {
         GameMap map = new GameMap();
         map.setGame(game);
+        map.setSharedMercenaryField(config.optBoolean("mercenary_shared_field", false));
+        if (config.optBoolean("path_landmarks", false))
+            map.enableLandmarks();
+        if (config.optBoolean("parallel_enemy_planning", false))
+            map.enableParallelPlanning();
+        int activityRadius = config.optInt("activity_radius", 0);
+        if (activityRadius > 0)
+            map.enableActivityCulling(activityRadius);
+        int budgetExpansions = config.optInt("path_budget_expansions", 0);
+        long budgetNanos = config.optLong("path_budget_ns", 0);
+        if (budgetExpansions > 0 || budgetNanos > 0)
+            map.setPathBudget(new PathBudget(budgetExpansions, budgetNanos));
+        if (config.optBoolean("path_cache", false))
+            map.setPathCache(new PathCache(config.optInt("path_cache_capacity", PathCache.DEFAULT_CAPACITY)));
+        map.setClusterSize(config.optInt("cluster_size", ClusterGraph.DEFAULT_CLUSTER_SIZE));
+        if (config.optBoolean("region_paging", false)) {
+            map.enableRegionPaging(
+                config.optInt("region_size", RegionPager.DEFAULT_REGION_SIZE),
+                config.optInt("region_load_radius", RegionPager.DEFAULT_LOAD_RADIUS));
+        }
 
         dungeon.getJSONArray("entities").forEach(e -> {
             JSONObject jsonEntity = (JSONObject) e;
+            if (map.deferToRegion(jsonEntity))
+                return;
             GraphNode newNode = GraphNodeFactory.createEntity(jsonEntity, game.getEntityFactory());
             Entity entity = newNode.getEntities().get(0);
 
@@ -108,6 +148,7 @@ public class GameBuilder {
             if (entity instanceof Player && !(entity instanceof OlderPlayer))
                 map.setPlayer((Player) entity);
         });
+        map.loadActiveRegions();
         game.setMap(map);
     }
 
@@ -121,11 +162,14 @@ public class GameBuilder {
                 jsonEntity.put("ticks", ticks);
                 jsonEntity.put("actions", game.getPlayerActions(ticks));
             }
+            if (map.deferToRegion(jsonEntity))
+                return;
             GraphNode newNode = GraphNodeFactory.createEntity(jsonEntity, game.getEntityFactory());
 
             if (newNode != null)
                 map.addNode(newNode);
         });
+        map.loadActiveRegions();
         game.setMap(map);
     }
 
@@ -223,11 +267,9 @@ public class GameBuilder {
     }
 
     public static void updateSpider(JSONObject spider, Game game) {
-        game.getEntities().stream()
+        game.getEntities(new Position(spider.getInt("x"), spider.getInt("y"))).stream()
                     .filter(e -> (
-                        e.getPosition().getX() == spider.getInt("x")
-                        && e.getPosition().getY() == spider.getInt("y")
-                        && e.getType().equals("spider")))
+                        e.getType().equals("spider")))
                     .forEach(e -> {
                         ((Spider) e).setMovementTrajectory(
                             JSONFactory.jsonToMovementPattern(spider.getJSONArray("movementTrajectory")));
@@ -238,11 +280,9 @@ public class GameBuilder {
     }
 
     public static void updateMercenary(JSONObject mercenary, Game game) {
-        game.getEntities().stream()
+        game.getEntities(new Position(mercenary.getInt("x"), mercenary.getInt("y"))).stream()
                     .filter(e -> (
-                        e.getPosition().getX() == mercenary.getInt("x")
-                        && e.getPosition().getY() == mercenary.getInt("y")
-                        && e.getType().equals("mercenary")
+                        e.getType().equals("mercenary")
                     ))
                     .forEach(e -> {
                         ((Mercenary) e).setRemainingSceptreEffect(mercenary.getInt("remainingSceptreEffect"));
@@ -253,44 +293,36 @@ public class GameBuilder {
     }
 
     public static void updateDoor(JSONObject door, Game game) {
-        if (!door.getBoolean("open")) {
+        if (!door.optBoolean("open", false)) {
             return;
         }
-        game.getEntities().stream()
+        game.getEntities(new Position(door.getInt("x"), door.getInt("y"))).stream()
                     .filter(e -> (
-                        e.getPosition().getX() == door.getInt("x")
-                        && e.getPosition().getY() == door.getInt("y")
-                        && e.getType().equals("door")
+                        e.getType().equals("door")
                     ))
                     .forEach(e -> ((Door) e).open());
     }
 
     public static void updateSwitch(JSONObject switchJson, Game game) {
-        game.getEntities().stream()
+        game.getEntities(new Position(switchJson.getInt("x"), switchJson.getInt("y"))).stream()
                     .filter(e -> (
-                        e.getPosition().getX() == switchJson.getInt("x")
-                        && e.getPosition().getY() == switchJson.getInt("y")
-                        && e.getType().equals("switch")
+                        e.getType().equals("switch")
                     ))
                     .forEach(e -> ((Switch) e).setActivated(switchJson.getBoolean("activated")));
     }
 
     public static void updateBomb(JSONObject bomb, Game game) {
-        game.getEntities().stream()
+        game.getEntities(new Position(bomb.getInt("x"), bomb.getInt("y"))).stream()
                     .filter(e -> (
-                        e.getPosition().getX() == bomb.getInt("x")
-                        && e.getPosition().getY() == bomb.getInt("y")
-                        && e.getType().equals("bomb")
+                        e.getType().equals("bomb")
                     ))
                     .forEach(e -> ((Bomb) e).setState(bomb.getString("state")));
     }
 
     public static void updateHydraZombie(JSONObject enemy, Game game) {
-        game.getEntities().stream()
+        game.getEntities(new Position(enemy.getInt("x"), enemy.getInt("y"))).stream()
                     .filter(e -> (
-                        e.getPosition().getX() == enemy.getInt("x")
-                        && e.getPosition().getY() == enemy.getInt("y")
-                        && (e.getType().equals("hydra") || e.getType().equals("zombie_toast"))
+                        (e.getType().equals("hydra") || e.getType().equals("zombie_toast"))
                     ))
                     .forEach(e -> ((Enemy) e).setSwampTileDuration(enemy.getInt("swampTileDuration")));
     }
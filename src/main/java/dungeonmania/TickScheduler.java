@@ -0,0 +1,157 @@
+package dungeonmania;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TickScheduler -- the callbacks Game runs every tick, kept in one bucket per
+ * phase (Game.PLAYER_MOVEMENT, Game.AI_MOVEMENT, ...). A tick runs the
+ * buckets lowest phase first and each bucket in the order it was registered,
+ * so the order is fixed by the phases rather than by how a heap lays out.
+ *
+ * Callbacks registered during a tick wait until the tick is over. Cancelled
+ * and spent once-callbacks are only marked, and a bucket is compacted when a
+ * tick finds more of them than live callbacks in it.
+ *
+ * Callbacks can also be scheduled for one tick only, kept in a TimerWheel
+ * until then. They run at the end of their phase, after its bucket, in the
+ * order they were scheduled. Like registered callbacks, those scheduled
+ * during a tick wait until the tick is over.
+ */
+public class TickScheduler {
+    private List<List<ComparableCallback>> buckets = new ArrayList<>();
+    private List<ComparableCallback> pending = new ArrayList<>();
+    // entity id -> callbacks registered under it
+    private Map<String, List<ComparableCallback>> byId = new HashMap<>();
+    // the tick running, or the next one to run
+    private int tick = 0;
+    private TimerWheel wheel = new TimerWheel(0);
+    // phases past the last bucket that a scheduled callback has used
+    private int timerPhases = 0;
+    private boolean running = false;
+    // the phase running during a tick
+    private int runningPhase = 0;
+
+    /**
+     * @return handle that cancels the callback when invalidated
+     */
+    public ComparableCallback register(Runnable r, int phase, String id, boolean once) {
+        if (phase < 0) throw new IllegalArgumentException("Negative phase " + phase);
+        ComparableCallback c = new ComparableCallback(r, phase, id, once);
+        byId.computeIfAbsent(id, k -> new ArrayList<>(1)).add(c);
+        if (running) pending.add(c);
+        else add(c);
+        return c;
+    }
+
+    /**
+     * Run r once in phase of tick, or in the next tick run if tick has gone
+     * by or is running
+     * @return handle that cancels the callback when invalidated
+     */
+    public ComparableCallback schedule(Runnable r, int tick, int phase, String id) {
+        if (phase < 0) throw new IllegalArgumentException("Negative phase " + phase);
+        ComparableCallback c = new ComparableCallback(r, phase, id, true);
+        byId.computeIfAbsent(id, k -> new ArrayList<>(1)).add(c);
+        wheel.add(Math.max(tick, running ? this.tick + 1 : this.tick), c);
+        timerPhases = Math.max(timerPhases, phase + 1);
+        return c;
+    }
+
+    /**
+     * Run r once in phase of the tick running, if that phase is still to
+     * come, else in the next tick run
+     * @return handle that cancels the callback when invalidated
+     */
+    public ComparableCallback scheduleThisTick(Runnable r, int phase, String id) {
+        if (!running || phase <= runningPhase) return schedule(r, tick, phase, id);
+        ComparableCallback c = new ComparableCallback(r, phase, id, true);
+        byId.computeIfAbsent(id, k -> new ArrayList<>(1)).add(c);
+        wheel.add(tick, c);
+        timerPhases = Math.max(timerPhases, phase + 1);
+        return c;
+    }
+
+    /**
+     * Cancel every callback registered or scheduled under id
+     */
+    public void unsubscribe(String id) {
+        List<ComparableCallback> callbacks = byId.remove(id);
+        if (callbacks != null) callbacks.forEach(ComparableCallback::invalidate);
+    }
+
+    public void runTick(int tick) {
+        this.tick = tick;
+        wheel.advanceTo(tick);
+        List<List<ComparableCallback>> current = buckets;
+        running = true;
+        try {
+            for (int phase = 0; phase < Math.max(current.size(), timerPhases); phase++) {
+                runningPhase = phase;
+                if (phase < current.size()) runBucket(current.get(phase));
+                // read each phase, a rewind puts in a new wheel for the rest of the tick
+                for (ComparableCallback c : wheel.take(phase)) {
+                    c.run();
+                    forget(c);
+                }
+            }
+        } finally {
+            running = false;
+            this.tick = tick + 1;
+        }
+        List<ComparableCallback> added = pending;
+        pending = new ArrayList<>();
+        added.forEach(this::add);
+    }
+
+    private void runBucket(List<ComparableCallback> bucket) {
+        int dead = 0;
+        // callbacks registered now go to pending, so the bucket keeps its size
+        for (int i = 0; i < bucket.size(); i++) {
+            ComparableCallback c = bucket.get(i);
+            c.run();
+            if (!c.isValid()) dead++;
+        }
+        if (dead * 2 > bucket.size()) compact(bucket);
+    }
+
+    /**
+     * Drop every callback. Cleared during a tick (a rewind through a time
+     * travelling portal, say), the tick finishes the buckets it was running
+     * and the callbacks registered since are what is left.
+     */
+    public void clear() {
+        buckets = new ArrayList<>();
+        pending = new ArrayList<>();
+        byId = new HashMap<>();
+        wheel = new TimerWheel(tick);
+    }
+
+    private void add(ComparableCallback c) {
+        while (buckets.size() <= c.getPhase()) buckets.add(new ArrayList<>());
+        buckets.get(c.getPhase()).add(c);
+    }
+
+    private void compact(List<ComparableCallback> bucket) {
+        int live = 0;
+        for (int i = 0; i < bucket.size(); i++) {
+            ComparableCallback c = bucket.get(i);
+            if (c.isValid()) {
+                bucket.set(live++, c);
+                continue;
+            }
+            forget(c);
+        }
+        bucket.subList(live, bucket.size()).clear();
+    }
+
+    private void forget(ComparableCallback c) {
+        List<ComparableCallback> callbacks = byId.get(c.getId());
+        if (callbacks == null) return;
+        // by identity, callbacks with the same id are equal
+        callbacks.removeIf(other -> other == c);
+        if (callbacks.isEmpty()) byId.remove(c.getId());
+    }
+}
@@ -0,0 +1,139 @@
+package dungeonmania;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TimerWheel -- callbacks waiting for a tick, for TickScheduler. Four levels
+ * of 64 slots: the first level has a slot per tick for the next 64 ticks, and
+ * a slot of each level above covers a whole turn of the level below. When the
+ * level below comes round to the start of a turn, the slot above for that turn
+ * is spread out over it. Callbacks further ahead than the top level reaches
+ * wait in a list that is spread out once every turn of the top level.
+ *
+ * Turning to the next tick costs nothing unless a level comes round, and a
+ * callback is moved at most once per level, so callbacks that are not due
+ * cost nothing on the ticks in between.
+ */
+final class TimerWheel {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    // turning further than this in one go puts every callback back in afresh
+    private static final int MAX_STEPS = SLOTS;
+
+    private static final class Timer {
+        private final int tick;
+        private final ComparableCallback callback;
+
+        private Timer(int tick, ComparableCallback callback) {
+            this.tick = tick;
+            this.callback = callback;
+        }
+    }
+
+    private final List<List<Timer>> slots = new ArrayList<>(LEVELS * SLOTS);
+    private List<Timer> overflow = new ArrayList<>();
+    private int now;
+    private int size = 0;
+
+    /**
+     * @param now tick the wheel starts at
+     */
+    TimerWheel(int now) {
+        this.now = now;
+        for (int i = 0; i < LEVELS * SLOTS; i++) slots.add(new ArrayList<>(0));
+    }
+
+    /**
+     * Add callback due at tick, or now if tick has passed
+     */
+    void add(int tick, ComparableCallback callback) {
+        insert(new Timer(Math.max(tick, now), callback));
+        size++;
+    }
+
+    /**
+     * Turn the wheel to tick. Callbacks due on the ticks passed over without
+     * being taken are due on tick instead.
+     */
+    void advanceTo(int tick) {
+        if (tick <= now) return;
+        if (size == 0) {
+            now = tick;
+            return;
+        }
+        if (tick - now > MAX_STEPS) {
+            List<Timer> all = new ArrayList<>(size);
+            slots.forEach(slot -> {
+                all.addAll(slot);
+                slot.clear();
+            });
+            all.addAll(overflow);
+            overflow.clear();
+            now = tick;
+            all.forEach(t -> insert(new Timer(Math.max(t.tick, now), t.callback)));
+            return;
+        }
+        while (now < tick) {
+            List<Timer> slot = slots.get(now & MASK);
+            List<Timer> late = slot.isEmpty() ? List.of() : new ArrayList<>(slot);
+            slot.clear();
+            now++;
+            cascade();
+            late.forEach(t -> insert(new Timer(now, t.callback)));
+        }
+    }
+
+    /**
+     * Take the callbacks of phase due now, in the order they were added
+     */
+    List<ComparableCallback> take(int phase) {
+        List<Timer> slot = slots.get(now & MASK);
+        if (slot.isEmpty()) return List.of();
+        List<ComparableCallback> due = new ArrayList<>();
+        slot.removeIf(t -> {
+            if (t.callback.getPhase() != phase) return false;
+            due.add(t.callback);
+            return true;
+        });
+        size -= due.size();
+        return due;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void insert(Timer t) {
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = BITS * (level + 1);
+            if ((t.tick >>> shift) == (now >>> shift)) {
+                slots.get(level * SLOTS + ((t.tick >>> (BITS * level)) & MASK)).add(t);
+                return;
+            }
+        }
+        overflow.add(t);
+    }
+
+    // spread out the slots above whose turn starts now, highest first
+    private void cascade() {
+        int top = 0;
+        while (top < LEVELS && (now & ((1 << (BITS * (top + 1))) - 1)) == 0) top++;
+        if (top == 0) return;
+        if (top == LEVELS) {
+            List<Timer> waiting = overflow;
+            overflow = new ArrayList<>();
+            waiting.forEach(this::insert);
+            top = LEVELS - 1;
+        }
+        for (int level = top; level >= 1; level--) {
+            List<Timer> slot = slots.get(level * SLOTS + ((now >>> (BITS * level)) & MASK));
+            if (slot.isEmpty()) continue;
+            List<Timer> spread = new ArrayList<>(slot);
+            slot.clear();
+            spread.forEach(this::insert);
+        }
+    }
+}
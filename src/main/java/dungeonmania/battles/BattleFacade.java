@@ -45,7 +45,7 @@ public class BattleFacade {
         if (enemy instanceof Hydra) {
             Hydra hydra = (Hydra) enemy;
             rounds = BattleStatistics.hydraBattle(playerBattleStatistics,
-                enemyBattleStatistics, hydra);
+                enemyBattleStatistics, hydra, game.getRandom());
         } else {
             rounds = BattleStatistics.battle(playerBattleStatistics, enemyBattleStatistics);
         }
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import dungeonmania.entities.enemies.Hydra;
+import dungeonmania.util.GameRandom;
 
 public class BattleStatistics {
     public static final double DEFAULT_DAMAGE_MAGNIFIER = 1.0;
@@ -62,14 +63,15 @@ public class BattleStatistics {
         return rounds;
     }
 
-    public static List<BattleRound> hydraBattle(BattleStatistics self, BattleStatistics target, Hydra hydra) {
+    public static List<BattleRound> hydraBattle(BattleStatistics self, BattleStatistics target, Hydra hydra,
+            GameRandom random) {
         List<BattleRound> rounds = new ArrayList<>();
         if (self.invincible ^ target.invincible) {
             return checkInvincibleBattle(self, target, rounds);
         }
 
         while (self.getHealth() > 0 && target.getHealth() > 0) {
-            if (hydra.growBack()) {
+            if (hydra.growBack(random)) {
                 battleHydraGrowBack(self, target, rounds, hydra);
             } else {
                 battleOnce(self, target, rounds);
@@ -2,6 +2,8 @@ package dungeonmania.entities;
 
 import dungeonmania.entities.enemies.Spider;
 import dungeonmania.map.GameMap;
+import dungeonmania.map.MoverCategory;
+import dungeonmania.map.Passability;
 import dungeonmania.util.Direction;
 import dungeonmania.util.Position;
 
@@ -18,6 +20,12 @@ public class Boulder extends PositionalEntity implements Overlappable {
         return false;
     }
 
+    @Override
+    public Passability getPassability(MoverCategory mover) {
+        // the player can only walk on if the boulder can be pushed
+        return (mover == MoverCategory.PLAYER) ? Passability.CONDITIONAL : Passability.BLOCKED;
+    }
+
     public void onOverlap(GameMap map, PositionalEntity entity) {
         if (entity instanceof Player) {
             map.moveTo(this, entity.getFacing());
@@ -26,6 +34,6 @@ public class Boulder extends PositionalEntity implements Overlappable {
 
     private boolean canPush(GameMap map, Direction direction) {
         Position newPosition = Position.translateBy(this.getPosition(), direction);
-        return !map.getEntities(newPosition).stream().anyMatch(e -> !e.canMoveOnto(map, this));
+        return map.canMoveTo(this, newPosition);
     }
 }
@@ -5,6 +5,8 @@ import java.util.List;
 
 import dungeonmania.entities.logical.LogicalEntity;
 import dungeonmania.map.GameMap;
+import dungeonmania.map.MoverCategory;
+import dungeonmania.map.Passability;
 import dungeonmania.util.Position;
 
 public abstract class Conductor extends PositionalEntity {
@@ -24,6 +26,11 @@ public abstract class Conductor extends PositionalEntity {
         return true;
     }
 
+    @Override
+    public Passability getPassability(MoverCategory mover) {
+        return Passability.OPEN;
+    }
+
     public void activate(int tick, Switch source) {
         setActivated(true);
         setActivateTick(tick);
@@ -54,7 +61,9 @@ public abstract class Conductor extends PositionalEntity {
     }
 
     public void setActivated(boolean activated) {
+        if (this.activated == activated) return;
         this.activated = activated;
+        notifyStateChanged();
     }
 
     public List<Wire> getAdjWires() {
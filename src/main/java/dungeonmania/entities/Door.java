@@ -1,6 +1,8 @@
 package dungeonmania.entities;
 
 import dungeonmania.map.GameMap;
+import dungeonmania.map.MoverCategory;
+import dungeonmania.map.Passability;
 
 import dungeonmania.entities.collectables.Key;
 import dungeonmania.entities.collectables.SunStone;
@@ -25,6 +27,13 @@ public class Door extends PositionalEntity implements Overlappable {
         return (entity instanceof Player && hasKey((Player) entity));
     }
 
+    @Override
+    public Passability getPassability(MoverCategory mover) {
+        if (open || mover == MoverCategory.SPIDER) return Passability.OPEN;
+        // the player needs the matching key
+        return (mover == MoverCategory.PLAYER) ? Passability.CONDITIONAL : Passability.BLOCKED;
+    }
+
     public void onOverlap(GameMap map, PositionalEntity entity) {
         if (!(entity instanceof Player))
             return;
@@ -54,6 +63,7 @@ public class Door extends PositionalEntity implements Overlappable {
 
     public void open() {
         open = true;
+        notifyStateChanged();
     }
 
     public int getNumber() {
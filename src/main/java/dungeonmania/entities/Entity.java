@@ -9,6 +9,10 @@ public class Entity {
         this.entityId = UUID.randomUUID().toString();
     }
 
+    public Entity(String entityId) {
+        this.entityId = entityId;
+    }
+
     public String getId() {
         return entityId;
     }
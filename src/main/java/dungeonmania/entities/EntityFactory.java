@@ -11,13 +11,14 @@ import dungeonmania.entities.logical.LightBulb;
 import dungeonmania.entities.logical.SwitchDoor;
 import dungeonmania.entities.rules.RuleFactory;
 import dungeonmania.map.GameMap;
+import dungeonmania.map.SearchAlgorithm;
 import dungeonmania.entities.collectables.potions.InvincibilityPotion;
 import dungeonmania.entities.collectables.potions.InvisibilityPotion;
+import dungeonmania.util.GameRandom.Stream;
 import dungeonmania.util.Position;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 import java.util.stream.Collectors;
 
 import org.json.JSONArray;
@@ -25,7 +26,6 @@ import org.json.JSONObject;
 
 public class EntityFactory {
     private JSONObject config;
-    private Random ranGen = new Random();
 
     public EntityFactory(JSONObject config) {
         this.config = config;
@@ -38,40 +38,45 @@ public class EntityFactory {
     public void spawnSpider(Game game) {
         GameMap map = game.getMap();
         int tick = game.getTick();
-        int rate = config.optInt("spider_spawn_interval", 0);
+        int rate = getSpiderSpawnInterval();
         if (rate == 0 || (tick + 1) % rate != 0) return;
         int radius = 20;
         Position player = map.getPlayerPosition();
 
         Spider dummySpider = buildSpider(new Position(0, 0)); // for checking possible positions
 
+        // only occupied tiles can rule a position out, so look at those first
+        int size = 2 * radius;
+        int minX = player.getX() - radius;
+        int minY = player.getY() - radius;
+        boolean[] blocked = new boolean[size * size];
+        for (PositionalEntity e : map.getEntitiesInRectangle(minX, minY, minX + size - 1, minY + size - 1)) {
+            Position p = e.getPosition();
+            int k = (p.getX() - minX) * size + (p.getY() - minY);
+            if (blocked[k]) continue;
+            blocked[k] = e instanceof Boulder || e instanceof Player || e instanceof Enemy
+                || !map.canMoveTo(dummySpider, p);
+        }
+
         List<Position> availablePos = new ArrayList<>();
-        for (int i = player.getX() - radius; i < player.getX() + radius; i++) {
-            for (int j = player.getY() - radius; j < player.getY() + radius; j++) {
-                if (Position.calculatePositionBetween(player, new Position(i, j)).magnitude() > radius) continue;
-                Position np = new Position(i, j);
-                if (!map.canMoveTo(dummySpider, np)) continue;
-                availablePos.add(np);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (Math.abs(minX + i - player.getX()) + Math.abs(minY + j - player.getY()) > radius) continue;
+                if (blocked[i * size + j]) continue;
+                availablePos.add(Position.of(minX + i, minY + j));
             }
         }
-        availablePos = availablePos
-            .stream()
-            .filter(p -> !map.getEntities(p)
-                            .stream()
-                            .anyMatch(e -> (e instanceof Boulder || e instanceof Player || e instanceof Enemy)))
-            .collect(Collectors.toList());
         if (availablePos.size() == 0) return;
-        Position initPosition = availablePos.get(ranGen.nextInt(availablePos.size()));
+        Position initPosition = availablePos.get(game.getRandom().nextInt(Stream.SPIDER_SPAWN, availablePos.size()));
         Spider spider = buildSpider(initPosition);
         map.addEntity(spider);
-        game.register(() -> spider.move(game), Game.AI_MOVEMENT, spider.getId());
+        map.registerEnemy(spider);
     }
 
     public void spawnZombie(Game game, ZombieToastSpawner spawner) {
         GameMap map = game.getMap();
         int tick = game.getTick();
-        Random randGen = new Random();
-        int spawnInterval = config.optInt("zombie_spawn_interval", ZombieToastSpawner.DEFAULT_SPAWN_INTERVAL);
+        int spawnInterval = getZombieSpawnInterval();
         if (spawnInterval == 0 || (tick + 1) % spawnInterval != 0) return;
         List<Position> pos = spawner.getPosition().getCardinallyAdjacentPositions();
         pos = pos
@@ -79,9 +84,23 @@ public class EntityFactory {
             .filter(p -> !map.getEntities(p).stream().anyMatch(e -> (e instanceof Wall)))
             .collect(Collectors.toList());
         if (pos.size() == 0) return;
-        ZombieToast zt = buildZombieToast(pos.get(randGen.nextInt(pos.size())));
+        ZombieToast zt = buildZombieToast(pos.get(game.getRandom().nextInt(Stream.ZOMBIE_SPAWN, pos.size())));
         map.addEntity(zt);
-        game.register(() -> zt.move(game), Game.AI_MOVEMENT, zt.getId());
+        map.registerEnemy(zt);
+    }
+
+    /**
+     * @return ticks between spiders spawning, 0 for none
+     */
+    public int getSpiderSpawnInterval() {
+        return config.optInt("spider_spawn_interval", 0);
+    }
+
+    /**
+     * @return ticks between a spawner's zombies, 0 for none
+     */
+    public int getZombieSpawnInterval() {
+        return config.optInt("zombie_spawn_interval", ZombieToastSpawner.DEFAULT_SPAWN_INTERVAL);
     }
 
     public Spider buildSpider(Position pos) {
@@ -118,7 +137,11 @@ public class EntityFactory {
         double mercenaryAttack = config.optDouble("mercenary_attack", Mercenary.DEFAULT_ATTACK);
         int mercenaryBribeAmount = config.optInt("bribe_amount", Mercenary.DEFAULT_BRIBE_AMOUNT);
         int mercenaryBribeRadius = config.optInt("bribe_radius", Mercenary.DEFAULT_BRIBE_RADIUS);
-        return new Mercenary(pos, mercenaryHealth, mercenaryAttack, mercenaryBribeAmount, mercenaryBribeRadius);
+        Mercenary mercenary = new Mercenary(pos, mercenaryHealth, mercenaryAttack, mercenaryBribeAmount,
+                mercenaryBribeRadius);
+        String search = config.optString("mercenary_search_algorithm", SearchAlgorithm.DIJKSTRA.name());
+        mercenary.setSearchAlgorithm(SearchAlgorithm.valueOf(search.toUpperCase()));
+        return mercenary;
     }
 
     public Hydra buildHydra(Position pos) {
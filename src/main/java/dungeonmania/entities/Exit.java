@@ -1,6 +1,8 @@
 package dungeonmania.entities;
 
 import dungeonmania.map.GameMap;
+import dungeonmania.map.MoverCategory;
+import dungeonmania.map.Passability;
 import dungeonmania.util.Position;
 
 public class Exit extends PositionalEntity {
@@ -12,4 +14,9 @@ public class Exit extends PositionalEntity {
     public boolean canMoveOnto(GameMap map, PositionalEntity entity) {
         return true;
     }
+
+    @Override
+    public Passability getPassability(MoverCategory mover) {
+        return Passability.OPEN;
+    }
 }
@@ -30,6 +30,7 @@ import dungeonmania.response.models.BattleResponse;
 import dungeonmania.response.models.ItemResponse;
 import dungeonmania.response.models.RoundResponse;
 import dungeonmania.util.Direction;
+import dungeonmania.util.GameRandom;
 import dungeonmania.util.Position;
 
 public class JSONFactory {
@@ -42,6 +43,8 @@ public class JSONFactory {
         List<JSONObject> entitiesJson = game.getEntities().stream()
                                                     .map(e -> constructJSON(e))
                                                     .collect(Collectors.toList());
+        // entities region paging has not loaded yet keep their dungeon JSON
+        entitiesJson.addAll(game.getMap().getUnloadedEntities());
         return entitiesJson;
     }
 
@@ -54,6 +57,7 @@ public class JSONFactory {
         gameJson.put("initialTreasureCount", game.getInitialTreasureCount());
         gameJson.put("battleFacade", battleFacadeToJSON(game.getBattleFacade()));
         gameJson.put("isInTick", game.getIsInTick());
+        gameJson.put("random", randomToJSON(game.getRandom()));
 
         return gameJson;
     }
@@ -97,6 +101,15 @@ public class JSONFactory {
         return json;
     }
 
+    public static JSONObject randomToJSON(GameRandom random) {
+        JSONObject randomJson = new JSONObject();
+        randomJson.put("seed", random.getSeed());
+        JSONArray states = new JSONArray();
+        for (long state : random.getStates()) states.put(state);
+        randomJson.put("states", states);
+        return randomJson;
+    }
+
     public static List<JSONObject> battleFacadeToJSON(BattleFacade battleFacade) {
         return battleFacade.getBattleResponses().stream().map(
             round -> constructJSON(round)).collect(Collectors.toList());
@@ -360,7 +373,7 @@ public class JSONFactory {
     }
 
     public static Position jsonToPosition(JSONObject json) {
-        return new Position(json.getInt("x"), json.getInt("y"));
+        return Position.of(json.getInt("x"), json.getInt("y"));
     }
 
     public static List<ItemResponse> jsonToBattleItems(JSONArray battleItems) {
@@ -383,6 +396,13 @@ public class JSONFactory {
         return rounds;
     }
 
+    public static GameRandom jsonToRandom(JSONObject randomJson) {
+        JSONArray statesJson = randomJson.getJSONArray("states");
+        long[] states = new long[statesJson.length()];
+        for (int i = 0; i < states.length; i++) states[i] = statesJson.getLong(i);
+        return new GameRandom(randomJson.getLong("seed"), states);
+    }
+
     public static List<BattleResponse> jsonToBattleResponses(JSONArray battleRounds) {
         Iterator<Object> iterator = battleRounds.iterator();
         List<BattleResponse> battleResponses = new ArrayList<>();
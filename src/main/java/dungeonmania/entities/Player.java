@@ -25,6 +25,8 @@ import dungeonmania.entities.playerState.InvincibleState;
 import dungeonmania.entities.playerState.InvisibleState;
 import dungeonmania.entities.playerState.PlayerState;
 import dungeonmania.map.GameMap;
+import dungeonmania.map.MoverCategory;
+import dungeonmania.map.Passability;
 import dungeonmania.util.Direction;
 import dungeonmania.util.Position;
 
@@ -107,6 +109,11 @@ public class Player extends PositionalEntity implements Battleable, Overlappable
         return true;
     }
 
+    @Override
+    public Passability getPassability(MoverCategory mover) {
+        return Passability.OPEN;
+    }
+
     public Entity getEntity(String itemUsedId) {
         return inventory.getEntity(itemUsedId);
     }
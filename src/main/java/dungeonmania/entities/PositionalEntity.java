@@ -1,6 +1,8 @@
 package dungeonmania.entities;
 
 import dungeonmania.map.GameMap;
+import dungeonmania.map.MoverCategory;
+import dungeonmania.map.Passability;
 import dungeonmania.util.Direction;
 import dungeonmania.util.Position;
 
@@ -16,6 +18,8 @@ public class PositionalEntity extends Entity {
     private Position previousPosition;
     private Position previousDistinctPosition;
     private Direction facing;
+    // map this entity is on, told when a state change alters its passability
+    private GameMap map;
 
     public PositionalEntity(Position position) {
         super();
@@ -25,10 +29,43 @@ public class PositionalEntity extends Entity {
         this.facing = null;
     }
 
+    public PositionalEntity(Position position, String entityId) {
+        super(entityId);
+        this.position = position;
+        this.previousPosition = position;
+        this.previousDistinctPosition = null;
+        this.facing = null;
+    }
+
     public boolean canMoveOnto(GameMap map, PositionalEntity entity) {
         return false;
     }
 
+    /**
+     * What canMoveOnto answers for a category of mover given this entity's
+     * current state. Anything that changes the answer has to call
+     * notifyStateChanged. Subclasses that override canMoveOnto should override
+     * this as well, the default is always correct but never fast.
+     */
+    public Passability getPassability(MoverCategory mover) {
+        return Passability.CONDITIONAL;
+    }
+
+    public void setMap(GameMap map) {
+        this.map = map;
+    }
+
+    /**
+     * @return the map this entity is on, or null if it is not on one
+     */
+    protected GameMap getMap() {
+        return map;
+    }
+
+    protected void notifyStateChanged() {
+        if (map != null) map.entityStateChanged(this);
+    }
+
     public Position getPosition() {
         return position;
     }
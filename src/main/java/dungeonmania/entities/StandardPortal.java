@@ -1,10 +1,11 @@
 package dungeonmania.entities;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import dungeonmania.entities.enemies.Mercenary;
 import dungeonmania.map.GameMap;
+import dungeonmania.map.MoverCategory;
+import dungeonmania.map.Passability;
 import dungeonmania.util.Position;
 
 public class StandardPortal extends Portal {
@@ -25,9 +26,16 @@ public class StandardPortal extends Portal {
         return true;
     }
 
+    @Override
+    public Passability getPassability(MoverCategory mover) {
+        if (pair == null) return Passability.BLOCKED;
+        // teleporting needs the tiles around the other end to be free
+        if (mover == MoverCategory.PLAYER || mover == MoverCategory.MERCENARY) return Passability.CONDITIONAL;
+        return Passability.OPEN;
+    }
+
     public boolean canTeleportTo(GameMap map, PositionalEntity entity) {
-        List<Position> neighbours = getPosition().getCardinallyAdjacentPositions();
-        return neighbours.stream().allMatch(n -> map.canMoveTo(entity, n));
+        return map.getPortalEdges().exits(this, entity).size() == Position.CARDINAL_COUNT;
     }
 
     public void onOverlap(GameMap map, PositionalEntity entity) {
@@ -38,28 +46,25 @@ public class StandardPortal extends Portal {
     }
 
     private void doTeleport(GameMap map, PositionalEntity entity) {
-        Position destination = pair.getPosition()
-                .getCardinallyAdjacentPositions()
-                .stream()
-                .filter(dest -> map.canMoveTo(entity, dest))
-                .findAny()
-                .orElse(null);
-        if (destination != null) {
-            map.moveTo(entity, destination);
+        List<Position> exits = map.getPortalEdges().exits(pair, entity);
+        if (!exits.isEmpty()) {
+            map.moveTo(entity, exits.get(0));
         }
     }
 
+    /**
+     * @return position of the portal this one leads to, or null if unbound
+     */
+    public Position getPairPosition() {
+        return (pair == null) ? null : pair.getPosition();
+    }
+
     public String getColor() {
         return color.toString();
     }
 
     public List<Position> getDestPositions(GameMap map, PositionalEntity entity) {
-        return pair == null
-                ? null
-                : pair.getPosition().getAdjacentPositions()
-                    .stream()
-                    .filter(p -> map.canMoveTo(entity, p))
-                    .collect(Collectors.toList());
+        return pair == null ? null : map.getPortalEdges().landings(pair, entity);
     }
     public void bind(StandardPortal portal) {
         if (this.pair == portal)
@@ -68,6 +73,7 @@ public class StandardPortal extends Portal {
             this.pair.bind(null);
         }
         this.pair = portal;
+        notifyStateChanged();
         if (portal != null) {
             portal.bind(this);
         }
@@ -2,6 +2,8 @@ package dungeonmania.entities;
 
 import dungeonmania.entities.enemies.Enemy;
 import dungeonmania.map.GameMap;
+import dungeonmania.map.MoverCategory;
+import dungeonmania.map.Passability;
 import dungeonmania.util.Position;
 
 public class SwampTile extends PositionalEntity implements Overlappable {
@@ -17,6 +19,11 @@ public class SwampTile extends PositionalEntity implements Overlappable {
         return true;
     }
 
+    @Override
+    public Passability getPassability(MoverCategory mover) {
+        return Passability.OPEN;
+    }
+
     public void onOverlap(GameMap map, PositionalEntity entity) {
         if (entity instanceof Enemy) {
             Enemy e = (Enemy) entity;
@@ -1,6 +1,8 @@
 package dungeonmania.entities;
 
 import dungeonmania.map.GameMap;
+import dungeonmania.map.MoverCategory;
+import dungeonmania.map.Passability;
 import dungeonmania.util.Position;
 
 public class TimeTravellingPortal extends Portal {
@@ -14,6 +16,11 @@ public class TimeTravellingPortal extends Portal {
         return true;
     }
 
+    @Override
+    public Passability getPassability(MoverCategory mover) {
+        return Passability.OPEN;
+    }
+
     public void onOverlap(GameMap map, PositionalEntity entity) {
         if (entity instanceof OlderPlayer) {
             map.destroyEntity(entity);
@@ -1,16 +1,61 @@
 package dungeonmania.entities;
 
 import dungeonmania.map.GameMap;
+import dungeonmania.map.MoverCategory;
+import dungeonmania.map.Passability;
 import dungeonmania.entities.enemies.Spider;
 import dungeonmania.util.Position;
 
 public class Wall extends PositionalEntity {
+    private static final String TERRAIN_ID_PREFIX = "wall@";
+
     public Wall(Position position) {
         super(position.asLayer(PositionalEntity.CHARACTER_LAYER));
     }
 
+    private Wall(Position position, String entityId) {
+        super(position.asLayer(PositionalEntity.CHARACTER_LAYER), entityId);
+    }
+
+    /**
+     * Walls on the map live in its terrain layer rather than as entities, this
+     * builds a throwaway Wall for one of them. Its id only depends on the
+     * position, so it is the same each time.
+     */
+    public static Wall fromTerrain(int x, int y) {
+        return new Wall(Position.of(x, y), terrainId(x, y));
+    }
+
+    public static String terrainId(int x, int y) {
+        return TERRAIN_ID_PREFIX + x + "," + y;
+    }
+
+    /**
+     * @return position encoded in a terrain wall id, or null for any other id
+     */
+    public static Position fromTerrainId(String id) {
+        if (id == null || !id.startsWith(TERRAIN_ID_PREFIX)) return null;
+        int comma = id.indexOf(',', TERRAIN_ID_PREFIX.length());
+        if (comma < 0) return null;
+        try {
+            return Position.of(Integer.parseInt(id.substring(TERRAIN_ID_PREFIX.length(), comma)),
+                Integer.parseInt(id.substring(comma + 1)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public boolean isTerrain() {
+        return getId().equals(terrainId(getPosition().getX(), getPosition().getY()));
+    }
+
     @Override
     public boolean canMoveOnto(GameMap map, PositionalEntity entity) {
         return entity instanceof Spider;
     }
+
+    @Override
+    public Passability getPassability(MoverCategory mover) {
+        return (mover == MoverCategory.SPIDER) ? Passability.OPEN : Passability.BLOCKED;
+    }
 }
@@ -74,17 +74,12 @@ public class Bomb extends CollectableEntity {
      * @param map
      */
     public void explode(GameMap map) {
-        int x = getPosition().getX();
-        int y = getPosition().getY();
-        for (int i = x - radius; i <= x + radius; i++) {
-            for (int j = y - radius; j <= y + radius; j++) {
-                List<PositionalEntity> entities = map.getEntities(new Position(i, j));
-                entities = entities.stream()
-                    .filter(e -> !(e instanceof Player))
-                    .collect(Collectors.toList());
-                entities.stream().forEach(e -> map.destroyEntity(e));
-            }
-        }
+        map.getEntitiesWithinSquare(getPosition(), radius)
+            .stream()
+            .filter(e -> !(e instanceof Player))
+            // skip anything already taken off the map while destroying an earlier entity
+            .filter(e -> map.hasEntity(e))
+            .forEach(e -> map.destroyEntity(e));
     }
 
     public State getState() {
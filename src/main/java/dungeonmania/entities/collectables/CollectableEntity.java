@@ -5,6 +5,8 @@ import dungeonmania.entities.Overlappable;
 import dungeonmania.entities.Player;
 import dungeonmania.entities.inventory.InventoryItem;
 import dungeonmania.map.GameMap;
+import dungeonmania.map.MoverCategory;
+import dungeonmania.map.Passability;
 import dungeonmania.util.Position;
 
 public class CollectableEntity extends PositionalEntity implements Overlappable, InventoryItem {
@@ -24,4 +26,9 @@ public class CollectableEntity extends PositionalEntity implements Overlappable,
     public boolean canMoveOnto(GameMap map, PositionalEntity entity) {
         return true;
     }
+
+    @Override
+    public Passability getPassability(MoverCategory mover) {
+        return Passability.OPEN;
+    }
 }
@@ -10,6 +10,8 @@ import dungeonmania.entities.Overlappable;
 import dungeonmania.entities.Player;
 import dungeonmania.entities.enemies.movement.MovingStrategy;
 import dungeonmania.map.GameMap;
+import dungeonmania.map.MoverCategory;
+import dungeonmania.map.Passability;
 import dungeonmania.util.Position;
 
 public abstract class Enemy extends PositionalEntity implements Battleable, Destroyable, Overlappable {
@@ -34,6 +36,11 @@ public abstract class Enemy extends PositionalEntity implements Battleable, Dest
         return entity instanceof Player;
     }
 
+    @Override
+    public Passability getPassability(MoverCategory mover) {
+        return (mover == MoverCategory.PLAYER) ? Passability.OPEN : Passability.BLOCKED;
+    }
+
     @Override
     public BattleStatistics getBattleStatistics() {
         return battleStatistics;
@@ -1,5 +1,6 @@
 package dungeonmania.entities.enemies;
 
+import dungeonmania.util.GameRandom;
 import dungeonmania.util.Position;
 
 public class Hydra extends ZombieToast {
@@ -16,8 +17,8 @@ public class Hydra extends ZombieToast {
         this.healthIncrease = increase;
     }
 
-    public boolean growBack() {
-        double randomValue = Math.random();
+    public boolean growBack(GameRandom random) {
+        double randomValue = random.nextDouble(GameRandom.Stream.HYDRA_GROWTH);
         return randomValue <= healthIncreaseRate;
     }
 
@@ -11,6 +11,9 @@ import dungeonmania.entities.enemies.movement.Dijkstra;
 import dungeonmania.entities.enemies.movement.Sticking;
 import dungeonmania.entities.enemies.movement.Swamp;
 import dungeonmania.map.GameMap;
+import dungeonmania.map.MoverCategory;
+import dungeonmania.map.Passability;
+import dungeonmania.map.SearchAlgorithm;
 import dungeonmania.util.Position;
 
 public class Mercenary extends Enemy implements Interactable {
@@ -22,8 +25,11 @@ public class Mercenary extends Enemy implements Interactable {
     private int bribeAmount = Mercenary.DEFAULT_BRIBE_AMOUNT;
     private int bribeRadius = Mercenary.DEFAULT_BRIBE_RADIUS;
     private boolean allied = false;
-    private int remainingSceptreEffect = 0;
+    // tick the sceptre's mind control wears off at, nothing happens then so
+    // it is compared against rather than counted down
+    private int sceptreEffectEnd = 0;
     private boolean reachedAdjacency = false;
+    private SearchAlgorithm searchAlgorithm = SearchAlgorithm.DIJKSTRA;
 
     public Mercenary(Position position, double health, double attack, int bribeAmount, int bribeRadius) {
         super(position, health, attack, new Dijkstra());
@@ -31,8 +37,12 @@ public class Mercenary extends Enemy implements Interactable {
         this.bribeRadius = bribeRadius;
     }
 
+    public void setSearchAlgorithm(SearchAlgorithm searchAlgorithm) {
+        this.searchAlgorithm = searchAlgorithm;
+    }
+
     public boolean isAllied() {
-        if (remainingSceptreEffect > 0) {
+        if (sceptreEffectEnd > currentTick()) {
             return true;
         }
         return allied;
@@ -90,11 +100,11 @@ public class Mercenary extends Enemy implements Interactable {
             if (reachedAdjacency) {
                 setMovingStrategy(new Sticking());
             } else {
-                setMovingStrategy(new Dijkstra());
+                setMovingStrategy(new Dijkstra(searchAlgorithm));
             }
         } else {
             // Follow hostile
-            setMovingStrategy(new Dijkstra());
+            setMovingStrategy(new Dijkstra(searchAlgorithm));
         }
 
         getMovingStrategy().execute(map, this);
@@ -111,11 +121,16 @@ public class Mercenary extends Enemy implements Interactable {
     }
 
     public int getRemainingSceptreEffect() {
-        return remainingSceptreEffect;
+        return Math.max(0, sceptreEffectEnd - currentTick());
     }
 
     public void setRemainingSceptreEffect(int remainingSceptreEffect) {
-        this.remainingSceptreEffect = remainingSceptreEffect;
+        this.sceptreEffectEnd = currentTick() + remainingSceptreEffect;
+    }
+
+    private int currentTick() {
+        GameMap map = getMap();
+        return (map != null) ? map.getTick() : 0;
     }
 
     public void setReachedAdjacency(boolean reachedAdjacency) {
@@ -138,6 +153,13 @@ public class Mercenary extends Enemy implements Interactable {
         return super.canMoveOnto(map, entity);
     }
 
+    @Override
+    public Passability getPassability(MoverCategory mover) {
+        // allied mercenaries can walk through each other
+        if (mover == MoverCategory.MERCENARY) return Passability.CONDITIONAL;
+        return super.getPassability(mover);
+    }
+
     public int getBribeAmount() {
         return bribeAmount;
     }
@@ -6,6 +6,8 @@ import dungeonmania.entities.PositionalEntity;
 import dungeonmania.entities.Interactable;
 import dungeonmania.entities.Player;
 import dungeonmania.map.GameMap;
+import dungeonmania.map.MoverCategory;
+import dungeonmania.map.Passability;
 import dungeonmania.util.Position;
 
 public class ZombieToastSpawner extends PositionalEntity implements Interactable, Destroyable {
@@ -15,6 +17,11 @@ public class ZombieToastSpawner extends PositionalEntity implements Interactable
         super(position);
     }
 
+    @Override
+    public Passability getPassability(MoverCategory mover) {
+        return Passability.BLOCKED;
+    }
+
     public void spawn(Game game) {
         game.spawnZombie(game, this);
     }
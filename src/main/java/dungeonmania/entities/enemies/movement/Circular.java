@@ -28,10 +28,7 @@ public class Circular implements MovingStrategy {
         }
 
         nextPos = s.getMovementTrajectory().get(s.getNextPositionElement());
-        entities = map.getEntities(nextPos);
-        if (entities == null
-                || entities.size() == 0
-                || entities.stream().allMatch(e -> e.canMoveOnto(map, s))) {
+        if (map.canMoveTo(s, nextPos)) {
             map.moveTo(s, nextPos);
             s.updateNextPosition();
         }
@@ -1,15 +1,37 @@
 package dungeonmania.entities.enemies.movement;
 
 import dungeonmania.entities.enemies.Enemy;
+import dungeonmania.entities.enemies.Mercenary;
 import dungeonmania.map.GameMap;
+import dungeonmania.map.SearchAlgorithm;
 import dungeonmania.util.Position;
 
 public class Dijkstra implements MovingStrategy {
+    private final SearchAlgorithm algorithm;
+
     public Dijkstra() {
+        this(SearchAlgorithm.DIJKSTRA);
+    }
+
+    /**
+     * @param algorithm search used to find the shortest path to the player
+     */
+    public Dijkstra(SearchAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public SearchAlgorithm getAlgorithm() {
+        return algorithm;
     }
 
     public void execute(GameMap map, Enemy e) {
-        Position nextPos = map.dijkstraPathFind(e.getPosition(), map.getPlayerPosition(), e);
+        Position nextPos;
+        if (e instanceof Mercenary && !((Mercenary) e).isAllied()) {
+            // with mercenary_shared_field on, hostile mercenaries share one search per tick
+            nextPos = map.stepTowardsPlayer((Mercenary) e, algorithm);
+        } else {
+            nextPos = map.pathFind(e.getPosition(), map.getPlayerPosition(), e, algorithm);
+        }
         map.moveTo(e, nextPos);
     }
 }
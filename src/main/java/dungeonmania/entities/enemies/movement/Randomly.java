@@ -1,15 +1,14 @@
 package dungeonmania.entities.enemies.movement;
 
 import java.util.List;
-import java.util.Random;
 import java.util.stream.Collectors;
 
 import dungeonmania.entities.enemies.Enemy;
 import dungeonmania.map.GameMap;
+import dungeonmania.util.GameRandom.Stream;
 import dungeonmania.util.Position;
 
 public class Randomly implements MovingStrategy {
-    private Random randGen = new Random();
     public Randomly() {
     }
 
@@ -22,7 +21,7 @@ public class Randomly implements MovingStrategy {
         if (pos.size() == 0) {
             nextPos = e.getPosition();
         } else {
-            nextPos = pos.get(randGen.nextInt(pos.size()));
+            nextPos = pos.get(map.getRandom().nextInt(Stream.ZOMBIE_MOVEMENT, pos.size()));
             }
         map.moveTo(e, nextPos);
     }
@@ -130,7 +130,7 @@ public class Inventory {
     public boolean canBuildMidnightArmour(Game game) {
         List<SunStone> sunstones = getEntities(SunStone.class);
         List<Sword> swords = getEntities(Sword.class);
-        return (sunstones.size() >= 1 && swords.size() >= 1 && game.getEntities(ZombieToast.class).size() == 0);
+        return (sunstones.size() >= 1 && swords.size() >= 1 && game.countEntities(ZombieToast.class) == 0);
     }
 
     public boolean canBuildSceptre() {
@@ -7,6 +7,8 @@ import dungeonmania.entities.PositionalEntity;
 import dungeonmania.entities.rules.Rule;
 import dungeonmania.util.Position;
 import dungeonmania.entities.Conductor;
+import dungeonmania.map.MoverCategory;
+import dungeonmania.map.Passability;
 
 public abstract class LogicalEntity extends PositionalEntity {
     private Rule rule;
@@ -53,6 +55,13 @@ public abstract class LogicalEntity extends PositionalEntity {
     }
 
     public void setActivated(boolean isActivated) {
+        if (this.isActivated == isActivated) return;
         this.isActivated = isActivated;
+        notifyStateChanged();
+    }
+
+    @Override
+    public Passability getPassability(MoverCategory mover) {
+        return Passability.BLOCKED;
     }
 }
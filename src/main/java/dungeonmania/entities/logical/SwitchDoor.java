@@ -4,6 +4,8 @@ import dungeonmania.entities.PositionalEntity;
 import dungeonmania.entities.enemies.Spider;
 import dungeonmania.entities.rules.Rule;
 import dungeonmania.map.GameMap;
+import dungeonmania.map.MoverCategory;
+import dungeonmania.map.Passability;
 import dungeonmania.util.Position;
 
 public class SwitchDoor extends LogicalEntity {
@@ -18,4 +20,9 @@ public class SwitchDoor extends LogicalEntity {
         }
         return false;
     }
+
+    @Override
+    public Passability getPassability(MoverCategory mover) {
+        return (isActivated() || mover == MoverCategory.SPIDER) ? Passability.OPEN : Passability.BLOCKED;
+    }
 }
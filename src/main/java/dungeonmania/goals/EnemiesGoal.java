@@ -12,7 +12,7 @@ public class EnemiesGoal implements GoalStrategy {
     }
 
     public boolean achieved(Game game) {
-        return (game.getEntities(ZombieToastSpawner.class).size() == 0 && game.getPlayerKillCount() >= target);
+        return (game.countEntities(ZombieToastSpawner.class) == 0 && game.getPlayerKillCount() >= target);
     }
 
     public String toString(Game game) {
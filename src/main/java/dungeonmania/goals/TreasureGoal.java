@@ -12,7 +12,7 @@ public class TreasureGoal implements GoalStrategy {
     }
 
     public boolean achieved(Game game) {
-        int currentTotal = game.getEntities(Treasure.class).size();
+        long currentTotal = game.countEntities(Treasure.class);
         return game.getInitialTreasureCount() - currentTotal >= target;
     }
 
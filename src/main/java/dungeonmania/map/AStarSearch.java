@@ -0,0 +1,192 @@
+package dungeonmania.map;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import dungeonmania.entities.PositionalEntity;
+import dungeonmania.entities.StandardPortal;
+import dungeonmania.util.Position;
+
+/**
+ * AStarSearch -- A* over the same moves as GameMap.dijkstraPathFind: cardinal
+ * steps costing the tile weight, and a step into a portal landing on one of
+ * the free tiles next to the other end.
+ *
+ * The heuristic is the Manhattan distance to the destination, or the
+ * Manhattan distance to a portal plus the least the rest of the trip can cost
+ * from where that portal lands, whichever is smaller. Every step costs at
+ * least 1 so it never overestimates, and the first path to reach the
+ * destination is a shortest one. Where the map has Landmarks their bound is
+ * used too, which follows winding corridors far better than Manhattan.
+ *
+ * Ties between equally short paths go the same way as in DijkstraSearch:
+ * every tile carries the rank of the best first step it is reached by, and
+ * of two tiles with the same estimate the nearer one is expanded first, so
+ * all the shortest ways onto a tile are in before it is expanded.
+ */
+final class AStarSearch {
+    private final GameMap map;
+    private final PositionalEntity entity;
+    private final Position dest;
+
+    private Map<Position, Integer> dist = new HashMap<>();
+    private Map<Position, Position> prev = new HashMap<>();
+    // rank of the first step of the best path found to each tile
+    private Map<Position, Integer> rank = new HashMap<>();
+    private PriorityQueue<Entry> q = new PriorityQueue<>();
+    private long order = 0;
+
+    // usable portals, and a lower bound on the cost from each one's landing
+    // tiles to the destination
+    private int[] portalX;
+    private int[] portalY;
+    private int[] portalRest;
+    private int portalCount = 0;
+
+    // null unless the map has them and they hold for this entity
+    private Landmarks landmarks = null;
+    private int[] landmarksToDest;
+
+    private static final class Entry implements Comparable<Entry> {
+        private final Position position;
+        private final int dist;
+        private final int estimate;
+        private final boolean portal;
+        private final long order;
+
+        private Entry(Position position, int dist, int estimate, boolean portal, long order) {
+            this.position = position;
+            this.dist = dist;
+            this.estimate = estimate;
+            this.portal = portal;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            if (estimate != other.estimate) return Integer.compare(estimate, other.estimate);
+            if (dist != other.dist) return Integer.compare(dist, other.dist);
+            // a portal hands its distance on to its landing tiles
+            if (portal != other.portal) return portal ? -1 : 1;
+            return Long.compare(order, other.order);
+        }
+    }
+
+    private AStarSearch(GameMap map, Position dest, PositionalEntity entity) {
+        this.map = map;
+        this.dest = dest;
+        this.entity = entity;
+        initPortals();
+        // spiders walk over walls, which the landmark distances go around
+        if (MoverCategory.of(entity) != MoverCategory.SPIDER) landmarks = map.getLandmarks();
+        if (landmarks != null) landmarksToDest = landmarks.distancesTo(dest);
+    }
+
+    /**
+     * @return first step of a shortest path from src to dest, or src if there
+     * is none within maxDist
+     */
+    static Position firstStep(GameMap map, Position src, Position dest, PositionalEntity entity, int maxDist) {
+        return new AStarSearch(map, dest, entity).search(src, maxDist);
+    }
+
+    private void initPortals() {
+        List<StandardPortal> portals = map.getEntities(StandardPortal.class);
+        List<List<Position>> landings = new ArrayList<>();
+        portalX = new int[portals.size()];
+        portalY = new int[portals.size()];
+        portalRest = new int[portals.size()];
+        for (StandardPortal portal : portals) {
+            List<Position> dests = portal.getDestPositions(map, entity);
+            if (dests == null || dests.isEmpty()) continue;
+            int i = portalCount++;
+            portalX[i] = portal.getPosition().getX();
+            portalY[i] = portal.getPosition().getY();
+            portalRest[i] = Integer.MAX_VALUE;
+            for (Position p : dests) portalRest[i] = Math.min(portalRest[i], manhattan(p, dest.getX(), dest.getY()));
+            landings.add(dests);
+        }
+        // a landing tile may be closer to another portal than to the
+        // destination, so relax through chains of portals
+        boolean changed = true;
+        for (int round = 0; changed && round < portalCount; round++) {
+            changed = false;
+            for (int i = 0; i < portalCount; i++) {
+                for (Position p : landings.get(i)) {
+                    for (int j = 0; j < portalCount; j++) {
+                        int viaPortal = manhattan(p, portalX[j], portalY[j]) + portalRest[j];
+                        if (viaPortal < portalRest[i]) {
+                            portalRest[i] = viaPortal;
+                            changed = true;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static int manhattan(Position p, int x, int y) {
+        return Math.abs(p.getX() - x) + Math.abs(p.getY() - y);
+    }
+
+    private int heuristic(Position p) {
+        int h = manhattan(p, dest.getX(), dest.getY());
+        for (int i = 0; i < portalCount; i++) {
+            int viaPortal = manhattan(p, portalX[i], portalY[i]) + portalRest[i];
+            if (viaPortal < h) h = viaPortal;
+        }
+        // both bounds hold, so the larger one is the better guide
+        if (landmarks != null) h = Math.max(h, landmarks.lowerBound(p, landmarksToDest));
+        return h;
+    }
+
+    // reach p from from, a path whose first step has rank r
+    private void relax(Position p, int newDist, Position from, int r) {
+        int oldDist = dist.getOrDefault(p, Integer.MAX_VALUE);
+        if (newDist > oldDist || newDist == oldDist && r >= rank.get(p)) return;
+        prev.put(p, from);
+        rank.put(p, r);
+        if (newDist == oldDist) return;
+        dist.put(p, newDist);
+        q.add(new Entry(p, newDist, newDist + heuristic(p), map.isPortalTile(p), order++));
+    }
+
+    private Position search(Position src, int maxDist) {
+        dist.put(src, 0);
+        rank.put(src, 0);
+        q.add(new Entry(src, 0, heuristic(src), false, order++));
+        while (!q.isEmpty()) {
+            Entry e = q.poll();
+            Position curr = e.position;
+            if (e.dist != dist.get(curr)) continue;
+            // every path still queued is longer than maxDist
+            if (curr.equals(dest) || e.estimate > maxDist) break;
+            StandardPortal portal = map.getPortal(curr);
+            if (portal != null && !curr.equals(src)) {
+                // stepping into the portal already paid for the landing tile
+                List<Position> dests = portal.getDestPositions(map, entity);
+                boolean first = src.equals(prev.get(curr));
+                for (int i = 0; dests != null && i < dests.size(); i++)
+                    relax(dests.get(i), e.dist, prev.get(curr), rank.get(curr) + (first ? i : 0));
+                continue;
+            }
+            long packed = curr.pack();
+            for (int i = 0; i < Position.CARDINAL_COUNT; i++) {
+                Position n = Position.ofPacked(Position.cardinalPacked(packed, i));
+                if (map.canMoveTo(entity, n))
+                    relax(n, e.dist + map.getStepCost(entity, n), curr,
+                        curr.equals(src) ? DijkstraSearch.stepRank(i) : rank.get(curr));
+            }
+        }
+        Position ret = dest;
+        if (!prev.containsKey(ret) || ret.equals(src)) return src;
+        while (!src.equals(prev.get(ret))) {
+            ret = prev.get(ret);
+            if (ret == null) return src;
+        }
+        return ret;
+    }
+}
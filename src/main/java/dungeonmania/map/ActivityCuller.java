@@ -0,0 +1,98 @@
+package dungeonmania.map;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import dungeonmania.ComparableCallback;
+import dungeonmania.Game;
+import dungeonmania.entities.enemies.Enemy;
+import dungeonmania.util.Position;
+
+/**
+ * ActivityCuller -- puts enemies further than a radius from the player to
+ * sleep. A sleeping enemy does not move and its move callback is dropped, so
+ * it costs nothing until it is woken.
+ *
+ * A sleeping enemy stays where it is and the player moves at most a tile a
+ * tick, so an enemy a gap of n tiles outside the radius cannot be reached for
+ * n ticks. Each sleeping enemy is only looked at again then, from the
+ * TimerWheel. When the player goes further in one move (through a portal),
+ * every sleeping enemy is looked at again that tick.
+ *
+ * Enemies only sleep between moves, so one the player walks into is still
+ * battled as usual, and an enemy that wakes up moves in the tick it wakes.
+ */
+final class ActivityCuller {
+    private final GameMap map;
+    private final int radius;
+    // by enemy id
+    private final Map<String, ComparableCallback> wakes = new HashMap<>();
+    private final Map<String, Enemy> sleeping = new HashMap<>();
+
+    ActivityCuller(GameMap map, int radius) {
+        this.map = map;
+        this.radius = radius;
+    }
+
+    void register(Game game, Enemy e) {
+        ComparableCallback[] move = new ComparableCallback[1];
+        move[0] = game.register(() -> {
+            int gap = gap(e);
+            if (gap > 0) {
+                move[0].invalidate();
+                sleep(game, e, gap);
+                return;
+            }
+            e.move(game);
+        }, Game.AI_MOVEMENT, e.getId());
+    }
+
+    /**
+     * Look at every sleeping enemy again this tick, for when the player has
+     * gone further than a tile in one move
+     */
+    void playerJumped(Game game) {
+        for (Enemy e : List.copyOf(sleeping.values())) {
+            wakes.get(e.getId()).invalidate();
+            sleep(game, e, 0);
+        }
+    }
+
+    void enemyRemoved(String id) {
+        wakes.remove(id);
+        sleeping.remove(id);
+    }
+
+    int getSleepingCount() {
+        return sleeping.size();
+    }
+
+    // look at e again in gap ticks, in the phase enemies move in, or later
+    // this tick for a gap of 0
+    private void sleep(Game game, Enemy e, int gap) {
+        sleeping.put(e.getId(), e);
+        Runnable wake = () -> {
+            wakes.remove(e.getId());
+            sleeping.remove(e.getId());
+            if (map.getEntity(e.getId()) != e) return;
+            int next = gap(e);
+            if (next > 0) {
+                sleep(game, e, next);
+                return;
+            }
+            e.move(game);
+            register(game, e);
+        };
+        wakes.put(e.getId(), (gap == 0) ? game.scheduleThisTick(wake, Game.AI_MOVEMENT, e.getId())
+            : game.schedule(wake, game.getTick() + gap, Game.AI_MOVEMENT, e.getId()));
+    }
+
+    // tiles e is outside the radius by
+    private int gap(Enemy e) {
+        if (map.getPlayer() == null) return 0;
+        Position p = e.getPosition();
+        Position player = map.getPlayerPosition();
+        return Math.abs(p.getX() - player.getX()) + Math.abs(p.getY() - player.getY()) - radius;
+    }
+}
@@ -0,0 +1,264 @@
+package dungeonmania.map;
+
+import java.util.Arrays;
+import java.util.List;
+
+import dungeonmania.entities.PositionalEntity;
+import dungeonmania.entities.StandardPortal;
+import dungeonmania.util.Position;
+
+/**
+ * BucketDijkstra -- the search of GameMap.dijkstraPathFind, on primitive
+ * arrays. Step costs are small integers (1, or 1 + the movement factor of a
+ * swamp), so the frontier is a bucket queue (Dial's algorithm): a ring of
+ * buckets, one per distance, as many as the largest step cost seen plus one.
+ *
+ * Tiles get a dense id per search from an open-addressing table keyed by the
+ * packed position, and distances, predecessors, ranks and the visited marks
+ * are arrays over those ids. Every array is kept between searches and
+ * stamped with the search it belongs to rather than cleared, so a search
+ * allocates nothing once they have grown to the size of the area searched.
+ *
+ * Ties between equally short paths go the same way as in DijkstraSearch:
+ * each tile keeps the rank of the first step of its path, and portals go to
+ * the front of their bucket so their landing tiles are ranked before they
+ * are taken.
+ */
+final class BucketDijkstra {
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final int NONE = -1;
+    // the source is the first tile given an id
+    private static final int SRC = 0;
+
+    private final GameMap map;
+    private int epoch = 0;
+
+    // position -> id table, a slot belongs to this search if stamped with epoch
+    private long[] slotKeys = new long[INITIAL_CAPACITY * 2];
+    private int[] slotIds = new int[INITIAL_CAPACITY * 2];
+    private int[] slotEpochs = new int[INITIAL_CAPACITY * 2];
+
+    // per id
+    private int size = 0;
+    private long[] positions = new long[INITIAL_CAPACITY];
+    private int[] dist = new int[INITIAL_CAPACITY];
+    private int[] prev = new int[INITIAL_CAPACITY];
+    private int[] rank = new int[INITIAL_CAPACITY];
+    private int[] visited = new int[INITIAL_CAPACITY];
+
+    // bucket queue: queued ids as linked lists, one per bucket, portals first
+    private int[] heads = new int[2];
+    private int[] tails = new int[2];
+    private int[] entryIds = new int[INITIAL_CAPACITY];
+    private int[] entryNext = new int[INITIAL_CAPACITY];
+    private int[] entryDist = new int[INITIAL_CAPACITY];
+    private int entries = 0;
+    private int queued = 0;
+    // distance of the bucket being emptied
+    private int current = 0;
+
+    BucketDijkstra(GameMap map) {
+        this.map = map;
+    }
+
+    /**
+     * @return first step of a shortest path from src to dest, or src if
+     * there is none within maxDist
+     */
+    Position firstStep(Position src, Position dest, PositionalEntity entity, int maxDist) {
+        start();
+        int srcId = id(src.pack());
+        dist[srcId] = 0;
+        rank[srcId] = 0;
+        push(srcId, 0, false);
+        long destKey = dest.pack();
+
+        for (current = 0; queued > 0 && current <= maxDist; current++) {
+            // the ring may grow while the bucket is emptied
+            while (heads[current % heads.length] != NONE) {
+                int curr = pop(current % heads.length);
+                if (dist[curr] != current) continue;
+                if (positions[curr] == destKey) return firstStep(srcId, destKey, src);
+                expand(curr, entity);
+            }
+        }
+        return firstStep(srcId, destKey, src);
+    }
+
+    private void expand(int curr, PositionalEntity entity) {
+        long p = positions[curr];
+        int x = Position.unpackX(p);
+        int y = Position.unpackY(p);
+        StandardPortal portal = map.getPortal(x, y);
+        if (portal != null) {
+            // stepping onto the portal already paid for the tile it lands on
+            List<Position> landings = portal.getDestPositions(map, entity);
+            if (landings == null) return;
+            boolean first = prev[curr] == SRC;
+            for (int i = 0; i < landings.size(); i++) {
+                int next = id(landings.get(i).pack());
+                if (visited[next] == epoch) continue;
+                relax(next, dist[curr], prev[curr], rank[curr] + (first ? i : 0));
+            }
+            return;
+        }
+        visited[curr] = epoch;
+        for (int i = 0; i < Position.CARDINAL_COUNT; i++) {
+            long n = Position.cardinalPacked(p, i);
+            int nx = Position.unpackX(n);
+            int ny = Position.unpackY(n);
+            int next = find(n);
+            if (next != NONE && visited[next] == epoch) continue;
+            if (!map.canMoveTo(entity, nx, ny)) continue;
+            if (next == NONE) next = id(n);
+            int cost = map.getStepCost(entity, nx, ny);
+            if (cost >= heads.length) growBuckets(cost + 1);
+            relax(next, dist[curr] + cost, curr, (curr == SRC) ? DijkstraSearch.stepRank(i) : rank[curr]);
+        }
+    }
+
+    // reach next from `from`, a path whose first step has rank r
+    private void relax(int next, int newDist, int from, int r) {
+        if (newDist > dist[next] || newDist == dist[next] && r >= rank[next]) return;
+        prev[next] = from;
+        rank[next] = r;
+        if (newDist == dist[next]) return;
+        dist[next] = newDist;
+        long n = positions[next];
+        push(next, newDist, map.getPortal(Position.unpackX(n), Position.unpackY(n)) != null);
+    }
+
+    private Position firstStep(int srcId, long destKey, Position src) {
+        int ret = find(destKey);
+        if (ret == NONE || ret == srcId || prev[ret] == NONE) return src;
+        while (prev[ret] != srcId) {
+            ret = prev[ret];
+            if (ret == NONE) return src;
+        }
+        return Position.ofPacked(positions[ret]);
+    }
+
+    private void start() {
+        epoch++;
+        size = 0;
+        entries = 0;
+        queued = 0;
+        Arrays.fill(heads, NONE);
+        Arrays.fill(tails, NONE);
+    }
+
+    private int find(long key) {
+        int mask = slotKeys.length - 1;
+        for (int i = hash(key) & mask; slotEpochs[i] == epoch; i = (i + 1) & mask) {
+            if (slotKeys[i] == key) return slotIds[i];
+        }
+        return NONE;
+    }
+
+    private int id(long key) {
+        int mask = slotKeys.length - 1;
+        int i = hash(key) & mask;
+        for (; slotEpochs[i] == epoch; i = (i + 1) & mask) {
+            if (slotKeys[i] == key) return slotIds[i];
+        }
+        if (size == positions.length) {
+            growIds();
+            return id(key);
+        }
+        int id = size++;
+        slotKeys[i] = key;
+        slotIds[i] = id;
+        slotEpochs[i] = epoch;
+        positions[id] = key;
+        dist[id] = Integer.MAX_VALUE;
+        prev[id] = NONE;
+        return id;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // double the per-id arrays and rehash this search's slots into a table
+    // twice their size
+    private void growIds() {
+        int capacity = positions.length * 2;
+        positions = Arrays.copyOf(positions, capacity);
+        dist = Arrays.copyOf(dist, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        rank = Arrays.copyOf(rank, capacity);
+        visited = Arrays.copyOf(visited, capacity);
+        long[] oldKeys = slotKeys;
+        int[] oldIds = slotIds;
+        int[] oldEpochs = slotEpochs;
+        slotKeys = new long[capacity * 2];
+        slotIds = new int[capacity * 2];
+        slotEpochs = new int[capacity * 2];
+        int mask = slotKeys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldEpochs[j] != epoch) continue;
+            int i = hash(oldKeys[j]) & mask;
+            while (slotEpochs[i] == epoch) i = (i + 1) & mask;
+            slotKeys[i] = oldKeys[j];
+            slotIds[i] = oldIds[j];
+            slotEpochs[i] = epoch;
+        }
+    }
+
+    private void push(int id, int d, boolean front) {
+        if (entries == entryIds.length) {
+            entryIds = Arrays.copyOf(entryIds, entries * 2);
+            entryNext = Arrays.copyOf(entryNext, entries * 2);
+            entryDist = Arrays.copyOf(entryDist, entries * 2);
+        }
+        int e = entries++;
+        entryIds[e] = id;
+        entryDist[e] = d;
+        if (front) linkFirst(e);
+        else link(e);
+        queued++;
+    }
+
+    private void linkFirst(int e) {
+        int bucket = entryDist[e] % heads.length;
+        entryNext[e] = heads[bucket];
+        if (heads[bucket] == NONE) tails[bucket] = e;
+        heads[bucket] = e;
+    }
+
+    private void link(int e) {
+        entryNext[e] = NONE;
+        int bucket = entryDist[e] % heads.length;
+        if (heads[bucket] == NONE) heads[bucket] = e;
+        else entryNext[tails[bucket]] = e;
+        tails[bucket] = e;
+    }
+
+    // widen the ring for a larger step cost, the queued entries all lie within
+    // one turn of it from the current distance so each old bucket holds a
+    // single distance and moves over whole, in order
+    private void growBuckets(int capacity) {
+        int[] oldHeads = heads;
+        heads = new int[Math.max(capacity, oldHeads.length * 2)];
+        tails = new int[heads.length];
+        Arrays.fill(heads, NONE);
+        Arrays.fill(tails, NONE);
+        for (int i = 0; i < oldHeads.length; i++) {
+            int e = oldHeads[(current + i) % oldHeads.length];
+            while (e != NONE) {
+                int next = entryNext[e];
+                link(e);
+                e = next;
+            }
+        }
+    }
+
+    private int pop(int bucket) {
+        int e = heads[bucket];
+        heads[bucket] = entryNext[e];
+        if (heads[bucket] == NONE) tails[bucket] = NONE;
+        queued--;
+        return entryIds[e];
+    }
+}
@@ -0,0 +1,434 @@
+package dungeonmania.map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import dungeonmania.entities.PositionalEntity;
+import dungeonmania.entities.StandardPortal;
+import dungeonmania.util.Position;
+
+/**
+ * ClusterGraph -- hierarchical (HPA*) view of the map for mercenary searches.
+ *
+ * The map is cut into square clusters. Wherever two neighbouring clusters
+ * share a run of open tiles along their border there is an entrance on each
+ * side (the middle of the run, or both ends of a long one), and every cluster
+ * keeps the cost between each pair of its entrances and portals. A search
+ * runs over those alone, with the start and the destination joined to their
+ * clusters by a search confined to the cluster, and only the first leg is
+ * turned back into a step on the map. Its cost grows with the number of
+ * clusters crossed rather than the number of tiles. Close to the destination
+ * a plain search is used instead.
+ *
+ * Only the parts of the map that stay put are modelled: walls, doors,
+ * boulders, swamps and so on, not the player or the enemies, so the step it
+ * gives has to be checked before it is taken. A cluster is rebuilt the next
+ * time it is needed after one of its tiles changed. Portals are followed
+ * while searching, since whether one can be taken depends on the tiles around
+ * the other end.
+ *
+ * Paths are close to, but not always, the shortest.
+ */
+public class ClusterGraph {
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+    // runs of open border tiles at least this long get an entrance at each end
+    private static final int LONG_RUN = 6;
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final GameMap map;
+    private final int size;
+    private Map<Long, Cluster> clusters = new HashMap<>();
+    // clusters are built for whichever mercenary asks, they all see the
+    // map the same way
+    private PositionalEntity mover;
+
+    private final class Cluster {
+        private final int minX;
+        private final int minY;
+        private boolean valid = false;
+
+        private boolean[] open;
+        private boolean[] portal;
+        private int[] weight;
+        // entrances and portals, by packed position, and the cost from each
+        // to each of the others inside the cluster
+        private Map<Long, Integer> index = new LinkedHashMap<>();
+        private long[] nodes;
+        private int[][] costs;
+
+        private Cluster(int minX, int minY) {
+            this.minX = minX;
+            this.minY = minY;
+        }
+
+        private boolean contains(int x, int y) {
+            return x >= minX && y >= minY && x < minX + size && y < minY + size;
+        }
+
+        private int slot(int x, int y) {
+            return (y - minY) * size + (x - minX);
+        }
+
+        private long packed(int slot) {
+            return Position.pack(minX + slot % size, minY + slot / size);
+        }
+
+        private boolean isPortalNode(int i) {
+            return portal[slot(Position.unpackX(nodes[i]), Position.unpackY(nodes[i]))];
+        }
+    }
+
+    ClusterGraph(GameMap map, int size) {
+        this.map = map;
+        this.size = size;
+    }
+
+    public int getClusterSize() {
+        return size;
+    }
+
+    /**
+     * Drop the costs of the cluster holding p, and of the neighbouring one
+     * if p is on the border since the entrances there are shared
+     */
+    void tileChanged(Position p) {
+        int x = p.getX();
+        int y = p.getY();
+        invalidate(x, y);
+        int offsetX = Math.floorMod(x, size);
+        int offsetY = Math.floorMod(y, size);
+        if (offsetX == 0) invalidate(x - 1, y);
+        if (offsetX == size - 1) invalidate(x + 1, y);
+        if (offsetY == 0) invalidate(x, y - 1);
+        if (offsetY == size - 1) invalidate(x, y + 1);
+    }
+
+    private void invalidate(int x, int y) {
+        Cluster cluster = clusters.get(key(x, y));
+        if (cluster != null) cluster.valid = false;
+    }
+
+    private long key(int x, int y) {
+        return Position.pack(Math.floorDiv(x, size), Math.floorDiv(y, size));
+    }
+
+    private Cluster cluster(int x, int y) {
+        long key = key(x, y);
+        Cluster cluster = clusters.get(key);
+        if (cluster == null) {
+            cluster = new Cluster(Math.floorDiv(x, size) * size, Math.floorDiv(y, size) * size);
+            clusters.put(key, cluster);
+        }
+        if (!cluster.valid) build(cluster);
+        return cluster;
+    }
+
+    private Cluster cluster(long packed) {
+        return cluster(Position.unpackX(packed), Position.unpackY(packed));
+    }
+
+    private void build(Cluster c) {
+        int tiles = size * size;
+        c.open = new boolean[tiles];
+        c.portal = new boolean[tiles];
+        c.weight = new int[tiles];
+        for (int i = 0; i < tiles; i++) {
+            Position p = Position.ofPacked(c.packed(i));
+            c.open[i] = map.isStaticallyOpen(p.getX(), p.getY(), mover);
+            StandardPortal portal = map.getPortal(p);
+            c.portal[i] = portal != null && portal.getPairPosition() != null;
+            c.weight[i] = map.getTileWeight(p);
+        }
+
+        c.index.clear();
+        int maxX = c.minX + size - 1;
+        int maxY = c.minY + size - 1;
+        addEntrances(c, c.minX, c.minY, 1, 0, 0, -1);
+        addEntrances(c, c.minX, maxY, 1, 0, 0, 1);
+        addEntrances(c, c.minX, c.minY, 0, 1, -1, 0);
+        addEntrances(c, maxX, c.minY, 0, 1, 1, 0);
+        for (int i = 0; i < tiles; i++) {
+            if (c.portal[i]) c.index.putIfAbsent(c.packed(i), c.index.size());
+        }
+
+        c.nodes = new long[c.index.size()];
+        c.index.forEach((p, i) -> c.nodes[i] = p);
+        c.costs = new int[c.nodes.length][];
+        int[] dist = new int[tiles];
+        for (int i = 0; i < c.nodes.length; i++) {
+            c.costs[i] = new int[c.nodes.length];
+            Arrays.fill(c.costs[i], UNREACHABLE);
+            // a portal is only ever left by teleporting
+            if (c.isPortalNode(i)) continue;
+            searchFrom(c, c.slot(Position.unpackX(c.nodes[i]), Position.unpackY(c.nodes[i])), dist, null);
+            for (int j = 0; j < c.nodes.length; j++) {
+                if (i != j) c.costs[i][j] = dist[c.slot(Position.unpackX(c.nodes[j]), Position.unpackY(c.nodes[j]))];
+            }
+        }
+        c.valid = true;
+    }
+
+    /**
+     * Entrances along one side of the cluster, walking from (x, y) in steps
+     * of (stepX, stepY), where the tile across the border is at (outX, outY)
+     * from the one inside. Both clusters on a border walk it the same way, so
+     * they agree on where the entrances are.
+     */
+    private void addEntrances(Cluster c, int x, int y, int stepX, int stepY, int outX, int outY) {
+        int runStart = -1;
+        for (int k = 0; k <= size; k++) {
+            boolean open = k < size
+                && c.open[c.slot(x + k * stepX, y + k * stepY)]
+                && map.isStaticallyOpen(x + k * stepX + outX, y + k * stepY + outY, mover);
+            if (open && runStart < 0) runStart = k;
+            if (open || runStart < 0) continue;
+            int runEnd = k - 1;
+            if (runEnd - runStart + 1 >= LONG_RUN) {
+                addNode(c, x + runStart * stepX, y + runStart * stepY);
+                addNode(c, x + runEnd * stepX, y + runEnd * stepY);
+            } else {
+                int mid = (runStart + runEnd) / 2;
+                addNode(c, x + mid * stepX, y + mid * stepY);
+            }
+            runStart = -1;
+        }
+    }
+
+    private void addNode(Cluster c, int x, int y) {
+        c.index.putIfAbsent(Position.pack(x, y), c.index.size());
+    }
+
+    /**
+     * Dijkstra inside the cluster from a slot, paying the weight of each tile
+     * stepped onto. Portals can be stepped onto but not walked out of.
+     */
+    private void searchFrom(Cluster c, int start, int[] dist, int[] prev) {
+        Arrays.fill(dist, UNREACHABLE);
+        if (prev != null) Arrays.fill(prev, -1);
+        PriorityQueue<Long> q = new PriorityQueue<>();
+        dist[start] = 0;
+        q.add((long) start);
+        while (!q.isEmpty()) {
+            long entry = q.poll();
+            int u = (int) (entry & 0xffff);
+            int d = (int) (entry >>> 16);
+            if (d != dist[u]) continue;
+            if (u != start && c.portal[u]) continue;
+            int x = c.minX + u % size;
+            int y = c.minY + u / size;
+            for (int i = 0; i < Position.CARDINAL_COUNT; i++) {
+                long p = Position.cardinalPacked(Position.pack(x, y), i);
+                int nx = Position.unpackX(p);
+                int ny = Position.unpackY(p);
+                if (!c.contains(nx, ny)) continue;
+                int v = c.slot(nx, ny);
+                if (!c.open[v] && !c.portal[v]) continue;
+                int nd = d + c.weight[v];
+                if (nd >= dist[v]) continue;
+                dist[v] = nd;
+                if (prev != null) prev[v] = u;
+                q.add(((long) nd << 16) | v);
+            }
+        }
+    }
+
+    /**
+     * Reverse of searchFrom: the cost from each slot in the cluster to the
+     * target slot
+     */
+    private void searchTo(Cluster c, int target, int[] dist) {
+        Arrays.fill(dist, UNREACHABLE);
+        PriorityQueue<Long> q = new PriorityQueue<>();
+        dist[target] = 0;
+        q.add((long) target);
+        while (!q.isEmpty()) {
+            long entry = q.poll();
+            int u = (int) (entry & 0xffff);
+            int d = (int) (entry >>> 16);
+            if (d != dist[u]) continue;
+            // stepping onto a portal teleports, so no path carries on from it
+            if (u != target && c.portal[u]) continue;
+            int x = c.minX + u % size;
+            int y = c.minY + u / size;
+            for (int i = 0; i < Position.CARDINAL_COUNT; i++) {
+                long p = Position.cardinalPacked(Position.pack(x, y), i);
+                int nx = Position.unpackX(p);
+                int ny = Position.unpackY(p);
+                if (!c.contains(nx, ny)) continue;
+                int v = c.slot(nx, ny);
+                if (!c.open[v]) continue;
+                int nd = d + c.weight[u];
+                if (nd >= dist[v]) continue;
+                dist[v] = nd;
+                q.add(((long) nd << 16) | v);
+            }
+        }
+    }
+
+    /**
+     * First step from src towards dest for a mercenary.
+     * @return the step, src if there is no path within maxDist, or null if
+     * the two are in the same or neighbouring clusters (where a plain search
+     * is cheap and exact) or the step found cannot be taken right now
+     */
+    Position firstStep(Position src, Position dest, PositionalEntity entity, int maxDist) {
+        if (Math.abs(Math.floorDiv(src.getX(), size) - Math.floorDiv(dest.getX(), size)) <= 1
+                && Math.abs(Math.floorDiv(src.getY(), size) - Math.floorDiv(dest.getY(), size)) <= 1)
+            return null;
+        return new Search(src, dest, entity).run(maxDist);
+    }
+
+    private final class Search {
+        private final Position src;
+        private final Position dest;
+        private final PositionalEntity entity;
+        private final long srcKey;
+        private final long destKey;
+
+        private final Cluster srcCluster;
+        private final int[] srcDist;
+        private final int[] srcPrev;
+        private final Cluster destCluster;
+        private final int[] toDest;
+        private final List<Position> portals = new ArrayList<>();
+
+        private Map<Long, Integer> dist = new HashMap<>();
+        private Map<Long, Long> parent = new HashMap<>();
+        private PriorityQueue<long[]> q = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+
+        private Search(Position src, Position dest, PositionalEntity entity) {
+            this.src = src;
+            this.dest = dest;
+            this.entity = entity;
+            this.srcKey = Position.pack(src.getX(), src.getY());
+            this.destKey = Position.pack(dest.getX(), dest.getY());
+            mover = entity;
+
+            int tiles = size * size;
+            srcCluster = cluster(src.getX(), src.getY());
+            srcDist = new int[tiles];
+            srcPrev = new int[tiles];
+            searchFrom(srcCluster, srcCluster.slot(src.getX(), src.getY()), srcDist, srcPrev);
+            destCluster = cluster(dest.getX(), dest.getY());
+            toDest = new int[tiles];
+            searchTo(destCluster, destCluster.slot(dest.getX(), dest.getY()), toDest);
+            for (StandardPortal portal : map.getEntities(StandardPortal.class)) {
+                if (portal.getPairPosition() != null) portals.add(portal.getPosition());
+            }
+        }
+
+        private int heuristic(long p) {
+            int x = Position.unpackX(p);
+            int y = Position.unpackY(p);
+            int h = Math.abs(x - dest.getX()) + Math.abs(y - dest.getY());
+            for (Position portal : portals) {
+                h = Math.min(h, Math.abs(x - portal.getX()) + Math.abs(y - portal.getY()));
+            }
+            return h;
+        }
+
+        private void relax(long p, int newDist, long from) {
+            if (newDist >= dist.getOrDefault(p, UNREACHABLE)) return;
+            dist.put(p, newDist);
+            parent.put(p, from);
+            q.add(new long[] {(long) newDist + heuristic(p), p, newDist});
+        }
+
+        // every node of a cluster, and the destination if it is there, from a
+        // tile in it with the costs from that tile in reach
+        private void relaxFromTile(Cluster c, long from, int d, int[] reach) {
+            for (int j = 0; j < c.nodes.length; j++) {
+                long node = c.nodes[j];
+                int cost = reach[c.slot(Position.unpackX(node), Position.unpackY(node))];
+                if (cost != UNREACHABLE && node != from) relax(node, d + cost, from);
+            }
+            if (c == destCluster) {
+                int cost = reach[c.slot(dest.getX(), dest.getY())];
+                if (cost != UNREACHABLE) relax(destKey, d + cost, from);
+            }
+        }
+
+        private Position run(int maxDist) {
+            dist.put(srcKey, 0);
+            q.add(new long[] {heuristic(srcKey), srcKey, 0});
+            int[] reach = new int[size * size];
+            boolean found = false;
+            while (!q.isEmpty()) {
+                long[] entry = q.poll();
+                long node = entry[1];
+                int d = (int) entry[2];
+                if (d != dist.get(node)) continue;
+                if (node == destKey) {
+                    found = true;
+                    break;
+                }
+                if (entry[0] > maxDist) break;
+
+                Cluster c = cluster(node);
+                int x = Position.unpackX(node);
+                int y = Position.unpackY(node);
+                int slot = c.slot(x, y);
+                if (c.portal[slot] && node != srcKey) {
+                    // stepping onto the portal paid for the tile it lands on
+                    List<Position> landings = map.getPortal(Position.of(x, y)).getDestPositions(map, entity);
+                    if (landings != null) landings.forEach(p -> relax(Position.pack(p.getX(), p.getY()), d, node));
+                    continue;
+                }
+                Integer i = c.index.get(node);
+                if (node == srcKey) {
+                    relaxFromTile(c, node, d, srcDist);
+                } else if (i == null) {
+                    // a tile a portal landed on
+                    searchFrom(c, slot, reach, null);
+                    relaxFromTile(c, node, d, reach);
+                    continue;
+                } else {
+                    for (int j = 0; j < c.nodes.length; j++) {
+                        if (c.costs[i][j] != UNREACHABLE) relax(c.nodes[j], d + c.costs[i][j], node);
+                    }
+                    if (c == destCluster && toDest[slot] != UNREACHABLE) relax(destKey, d + toDest[slot], node);
+                }
+                if (i == null) continue;
+                for (int k = 0; k < Position.CARDINAL_COUNT; k++) {
+                    long across = Position.cardinalPacked(node, k);
+                    if (c.contains(Position.unpackX(across), Position.unpackY(across))) continue;
+                    Cluster other = cluster(across);
+                    if (!other.index.containsKey(across)) continue;
+                    relax(across, d + other.weight[other.slot(Position.unpackX(across), Position.unpackY(across))], node);
+                }
+            }
+            if (!found) return src;
+            return refine();
+        }
+
+        // the first leg always starts inside the source cluster
+        private Position refine() {
+            long first = destKey;
+            while (parent.get(first) != srcKey) first = parent.get(first);
+            Cluster c = srcCluster;
+            if (!c.contains(Position.unpackX(first), Position.unpackY(first))) {
+                // straight across the border from the source
+                Position step = Position.ofPacked(first);
+                return map.canMoveTo(entity, step) ? step : null;
+            }
+            int slot = c.slot(Position.unpackX(first), Position.unpackY(first));
+            if (c.portal[slot] && srcPrev[slot] == c.slot(src.getX(), src.getY())) {
+                // a portal next to the source, the step is onto where it lands
+                long landing = destKey;
+                while (parent.get(landing) != first) landing = parent.get(landing);
+                Position step = Position.ofPacked(landing);
+                return map.canMoveTo(entity, step) ? step : null;
+            }
+            int srcSlot = c.slot(src.getX(), src.getY());
+            if (srcPrev[slot] < 0) return null;
+            while (srcPrev[slot] != srcSlot) slot = srcPrev[slot];
+            Position step = Position.ofPacked(c.packed(slot));
+            return map.canMoveTo(entity, step) ? step : null;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package dungeonmania.map;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import dungeonmania.entities.PositionalEntity;
+import dungeonmania.entities.StandardPortal;
+import dungeonmania.util.Position;
+
+/**
+ * DStarLite -- incremental search for one mercenary chasing the player. The
+ * search runs backwards from the player and is kept between ticks: when the
+ * mercenary moves only the keys shift, when the player moves the old and new
+ * goal tiles are updated (as if a zero cost edge to a virtual goal moved from
+ * one to the other), and when a tile changes only the tiles stepping onto it
+ * are. The work each tick is then about the number of costs that changed
+ * rather than the size of the map.
+ *
+ * Like ClusterGraph it plans around the terrain only, so the step it gives
+ * has to be checked before it is taken. A step that turns out to be blocked
+ * is reported back with stepBlocked, and the tile is planned around until
+ * the mover can step onto it again. It starts over when the player or the
+ * mercenary teleports or when many tiles changed at once (a rewind, say).
+ *
+ * Moves are the same as in GameMap.dijkstraPathFind: cardinal steps paying
+ * the weight of the tile stepped onto, and a step into a portal landing on a
+ * tile next to the other end.
+ */
+public class DStarLite {
+    // past this many changed tiles since the last step, start over
+    public static final int MAX_CHANGES = 64;
+    private static final int INF = Integer.MAX_VALUE / 2;
+
+    private final GameMap map;
+    private final PositionalEntity mover;
+
+    private Position start = null;
+    private Position goal = null;
+    private int km = 0;
+    private boolean useManhattan = true;
+    private List<StandardPortal> portals = new ArrayList<>();
+
+    private Map<Position, Integer> g = new HashMap<>();
+    private Map<Position, Integer> rhs = new HashMap<>();
+    // current key of each queued tile, entries in q with another key are stale
+    private Map<Position, Long> queued = new HashMap<>();
+    private PriorityQueue<Entry> q = new PriorityQueue<>();
+
+    private Set<Position> changed = new HashSet<>();
+    private boolean overflowed = false;
+    // tiles the mover was turned back from, planned around until they free up
+    private Set<Position> blocked = new HashSet<>();
+
+    private static final class Entry implements Comparable<Entry> {
+        private final Position position;
+        private final long key;
+
+        private Entry(Position position, long key) {
+            this.position = position;
+            this.key = key;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return Long.compare(key, other.key);
+        }
+    }
+
+    DStarLite(GameMap map, PositionalEntity mover) {
+        this.map = map;
+        this.mover = mover;
+    }
+
+    /**
+     * Note that a tile's terrain changed, to be repaired on the next step
+     */
+    void tileChanged(Position p) {
+        if (overflowed) return;
+        changed.add(asKey(p));
+        if (changed.size() > MAX_CHANGES) overflowed = true;
+    }
+
+    /**
+     * Note that the mover could not take the step to p (an enemy is on it,
+     * say), to be planned around until it can
+     */
+    void stepBlocked(Position p) {
+        p = asKey(p);
+        if (blocked.add(p)) tileChanged(p);
+    }
+
+    /**
+     * @return first step of a shortest path from src to dest, or src if
+     * there is none within maxDist
+     */
+    Position nextStep(Position src, Position dest, int maxDist) {
+        src = asKey(src);
+        dest = asKey(dest);
+        blocked.removeIf(p -> {
+            if (!map.canMoveTo(mover, p)) return false;
+            tileChanged(p);
+            return true;
+        });
+        if (start == null || overflowed || distance(start, src) > 1 || distance(goal, dest) > 1) {
+            reset(src, dest);
+        } else {
+            if (!src.equals(start)) {
+                km += heuristic(start, src);
+                start = src;
+            }
+            if (!dest.equals(goal)) {
+                Position old = goal;
+                goal = dest;
+                updateVertex(old);
+                updateVertex(goal);
+            }
+            for (Position t : changed) {
+                // a tile that just opened has no cost worked out yet
+                if (open(t)) updateVertex(t);
+                for (Position u : predecessors(t)) updateVertex(u);
+            }
+        }
+        changed.clear();
+
+        if (start.equals(goal)) return start;
+        computeShortestPath(maxDist);
+        if (g(start) != rhs(start) || g(start) > maxDist) return start;
+        // ties go the same way as in DijkstraSearch
+        Position best = start;
+        int bestCost = INF;
+        int bestRank = Integer.MAX_VALUE;
+        for (int i = 0; i < Position.CARDINAL_COUNT; i++) {
+            Position s = Position.ofPacked(Position.cardinalPacked(start.pack(), i));
+            List<Position> landings = landings(s);
+            for (int j = 0; j < landings.size(); j++) {
+                int cost = weight(s) + g(landings.get(j));
+                int rank = DijkstraSearch.stepRank(i) + j;
+                if (cost < bestCost || (cost == bestCost && rank < bestRank)) {
+                    bestCost = cost;
+                    bestRank = rank;
+                    best = landings.get(j);
+                }
+            }
+        }
+        return best;
+    }
+
+    private void reset(Position src, Position dest) {
+        start = src;
+        goal = dest;
+        km = 0;
+        g.clear();
+        rhs.clear();
+        queued.clear();
+        q.clear();
+        overflowed = false;
+        portals.clear();
+        for (StandardPortal portal : map.getEntities(StandardPortal.class)) {
+            if (portal.getPairPosition() != null) portals.add(portal);
+        }
+        // a portal can make two tiles far apart on the map next to each other
+        useManhattan = portals.isEmpty();
+        rhs.put(goal, 0);
+        enqueue(goal);
+    }
+
+    private void computeShortestPath(int maxDist) {
+        while (!q.isEmpty()) {
+            Entry top = q.peek();
+            if (!Long.valueOf(top.key).equals(queued.get(top.position))) {
+                q.poll();
+                continue;
+            }
+            boolean startSettled = top.key >= key(start) && rhs(start) == g(start);
+            // nothing left in the queue can give a path within maxDist
+            if (startSettled || (top.key >>> 32) - km > maxDist) break;
+
+            q.poll();
+            Position u = top.position;
+            queued.remove(u);
+            long newKey = key(u);
+            if (top.key < newKey) {
+                enqueue(u, newKey);
+            } else if (g(u) > rhs(u)) {
+                g.put(u, rhs(u));
+                for (Position p : predecessors(u)) updateVertex(p);
+            } else {
+                g.put(u, INF);
+                updateVertex(u);
+                for (Position p : predecessors(u)) updateVertex(p);
+            }
+        }
+    }
+
+    private void updateVertex(Position u) {
+        if (!u.equals(goal)) {
+            int best = INF;
+            for (int i = 0; i < Position.CARDINAL_COUNT; i++) {
+                Position s = Position.ofPacked(Position.cardinalPacked(u.pack(), i));
+                int w = weight(s);
+                for (Position landing : landings(s)) best = Math.min(best, w + g(landing));
+            }
+            if (best == INF) rhs.remove(u);
+            else rhs.put(u, best);
+        } else {
+            rhs.put(u, 0);
+        }
+        if (g(u) != rhs(u)) {
+            enqueue(u);
+        } else {
+            queued.remove(u);
+        }
+    }
+
+    private void enqueue(Position u) {
+        enqueue(u, key(u));
+    }
+
+    private void enqueue(Position u, long key) {
+        queued.put(u, key);
+        q.add(new Entry(u, key));
+    }
+
+    private long key(Position u) {
+        long k2 = Math.min(g(u), rhs(u));
+        long k1 = Math.min(k2 + heuristic(start, u) + km, INF);
+        return (k1 << 32) | k2;
+    }
+
+    private int g(Position p) {
+        return g.getOrDefault(p, INF);
+    }
+
+    private int rhs(Position p) {
+        return rhs.getOrDefault(p, INF);
+    }
+
+    private int heuristic(Position a, Position b) {
+        return useManhattan ? distance(a, b) : 0;
+    }
+
+    private static int distance(Position a, Position b) {
+        return Math.abs(a.getX() - b.getX()) + Math.abs(a.getY() - b.getY());
+    }
+
+    private static Position asKey(Position p) {
+        return Position.of(p.getX(), p.getY());
+    }
+
+    private int weight(Position p) {
+        return map.getTileWeight(p);
+    }
+
+    private boolean open(Position p) {
+        return map.isStaticallyOpen(p.getX(), p.getY(), mover) && !blocked.contains(p);
+    }
+
+    // bound portal on p, if the tiles round the other end let it be used
+    private StandardPortal usablePortal(Position p) {
+        StandardPortal portal = map.getPortal(p);
+        if (portal == null || portal.getPairPosition() == null) return null;
+        for (Position n : portal.getPairPosition().getCardinallyAdjacentPositions()) {
+            if (!map.isStaticallyOpen(n.getX(), n.getY(), mover)) return null;
+        }
+        return portal;
+    }
+
+    /**
+     * Where stepping onto s ends up: s itself, the free tiles around the
+     * other end if s is a portal, or nowhere
+     */
+    private List<Position> landings(Position s) {
+        StandardPortal portal = usablePortal(s);
+        if (portal != null) {
+            List<Position> res = new ArrayList<>();
+            for (Position p : portal.getPairPosition().getAdjacentPositions()) {
+                if (open(p)) res.add(p);
+            }
+            return res;
+        }
+        if (map.getPortal(s) != null || !open(s)) return List.of();
+        return List.of(s);
+    }
+
+    /**
+     * Tiles with a step landing on t, or whose steps t's terrain decides
+     */
+    private Set<Position> predecessors(Position t) {
+        Set<Position> res = new HashSet<>(t.getCardinallyAdjacentPositions());
+        for (StandardPortal portal : portals) {
+            Position pair = portal.getPairPosition();
+            if (Math.abs(pair.getX() - t.getX()) <= 1 && Math.abs(pair.getY() - t.getY()) <= 1)
+                res.addAll(portal.getPosition().getCardinallyAdjacentPositions());
+        }
+        res.removeIf(u -> !u.equals(start) && !open(u));
+        return res;
+    }
+}
@@ -0,0 +1,191 @@
+package dungeonmania.map;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import dungeonmania.util.Position;
+
+/**
+ * DijkstraSearch -- the search of GameMap.dijkstraPathFind, over a TileView
+ * so that it can run on a PassabilitySnapshot as well as on the map.
+ *
+ * Among equally short paths the one taken is the one whose first step comes
+ * first: right, down, left, up, and for a step into a portal the order its
+ * landing tiles are listed in. Every tile carries the rank of the best first
+ * step it is reached by, which settles ties the same way whatever order the
+ * queue polls equal tiles in, so other searches can follow the same rule.
+ *
+ * A search can be run with a PathBudget and stopped when it runs out, then
+ * picked up again later. The distances from src do not depend on dest, so it
+ * can be picked up for another dest too.
+ */
+final class DijkstraSearch {
+    // first step ranks go up in steps of this, leaving room for the landing
+    // tiles of a portal
+    static final int LANDINGS = 16;
+
+    private final Position src;
+    private final boolean weighted;
+    private final Map<Position, Integer> dist = new HashMap<>();
+    private final Map<Position, Position> prev = new HashMap<>();
+    private final Map<Position, Boolean> visited = new HashMap<>();
+    // rank of the first step of the best path found to each tile
+    private final Map<Position, Integer> rank = new HashMap<>();
+    private final Set<Position> portals = new HashSet<>();
+    private final PriorityQueue<Position> q;
+
+    /**
+     * @param weighted whether the mover pays tile weights, a search is only
+     * picked up again for the same
+     */
+    DijkstraSearch(Position src, boolean weighted) {
+        this.src = src;
+        this.weighted = weighted;
+        prev.put(src, null);
+        dist.put(src, 0);
+        rank.put(src, 0);
+        // a portal hands its distance on to its landing tiles, so it goes
+        // before the tiles as far away as it
+        q = new PriorityQueue<>((x, y) -> {
+            int c = Integer.compare(dist.getOrDefault(x, Integer.MAX_VALUE), dist.getOrDefault(y, Integer.MAX_VALUE));
+            return (c != 0) ? c : Boolean.compare(!portals.contains(x), !portals.contains(y));
+        });
+        q.add(src);
+    }
+
+    /**
+     * @return first step of a shortest path from src to dest, or src if
+     * there is none within maxDist
+     */
+    static Position firstStep(TileView view, Position src, Position dest, int maxDist) {
+        // if inputs are invalid, don't move
+        if (!view.contains(src) || !view.contains(dest))
+        return src;
+        DijkstraSearch search = new DijkstraSearch(src, true);
+        search.run(view, dest, maxDist, null);
+        return search.firstStep(dest);
+    }
+
+    /**
+     * @return shortest path from src to dest, first step first, empty if
+     * there is none within maxDist
+     */
+    static List<Position> path(TileView view, Position src, Position dest, int maxDist) {
+        if (!view.contains(src) || !view.contains(dest)) return List.of();
+        DijkstraSearch search = new DijkstraSearch(src, true);
+        search.run(view, dest, maxDist, null);
+        return search.path(dest);
+    }
+
+    boolean resumableFor(Position src, boolean weighted) {
+        return this.src.equals(src) && this.weighted == weighted;
+    }
+
+    /**
+     * Search until dest is reached, nothing within maxDist is left or budget
+     * (if any) runs out
+     * @return false if the budget ran out first
+     */
+    boolean run(TileView view, Position dest, int maxDist, PathBudget budget) {
+        // picked up again after getting past dest
+        if (visited.containsKey(dest)) return true;
+        while (!q.isEmpty()) {
+            Position curr = q.peek();
+            if (curr.equals(dest) || dist.get(curr) > maxDist) break;
+            if (budget != null && !budget.spend()) return false;
+            q.poll();
+            // check portal
+            List<Position> teleportDest = view.getPortalLandings(curr);
+            if (teleportDest != null) {
+                // stepping into the portal is the first step, and lands on one of these
+                boolean first = src.equals(prev.get(curr));
+                for (int i = 0; i < teleportDest.size(); i++) {
+                    Position p = teleportDest.get(i);
+                    if (visited.containsKey(p)) continue;
+                    relax(view, p, dist.get(curr), prev.get(curr), rank.get(curr) + (first ? i : 0));
+                }
+                continue;
+            }
+            visited.put(curr, true);
+            long packed = curr.pack();
+            for (int i = 0; i < Position.CARDINAL_COUNT; i++) {
+                Position n = Position.ofPacked(Position.cardinalPacked(packed, i));
+                if (visited.containsKey(n) || !view.canMoveTo(n)) continue;
+                relax(view, n, dist.get(curr) + view.getStepCost(n), curr,
+                    curr.equals(src) ? stepRank(i) : rank.get(curr));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Every SearchAlgorithm, this one included, breaks ties between equally
+     * short paths on this: right, down, left, then up.
+     *
+     * @return rank of a first step onto the i-th of getCardinallyAdjacentPositions,
+     * lower is taken first
+     */
+    static int stepRank(int i) {
+        return (i + 3) % 4 * LANDINGS;
+    }
+
+    // reach n from from, a path whose first step has rank r
+    private void relax(TileView view, Position n, int newDist, Position from, int r) {
+        int oldDist = dist.getOrDefault(n, Integer.MAX_VALUE);
+        if (newDist > oldDist || newDist == oldDist && r >= rank.get(n)) return;
+        prev.put(n, from);
+        rank.put(n, r);
+        if (newDist == oldDist) return;
+        q.remove(n);
+        dist.put(n, newDist);
+        if (view.getPortalLandings(n) != null) portals.add(n);
+        q.add(n);
+    }
+
+    /**
+     * @return the tile expanded so far that is closest to dest by Manhattan
+     * distance, the one nearest src (then the first step taken first) on a tie
+     */
+    Position closestTo(Position dest) {
+        Position best = src;
+        for (Position p : visited.keySet()) {
+            int c = Integer.compare(distance(p, dest), distance(best, dest));
+            if (c == 0) c = Integer.compare(dist.get(p), dist.get(best));
+            if (c == 0) c = Integer.compare(rank.get(p), rank.get(best));
+            if (c < 0) best = p;
+        }
+        return best;
+    }
+
+    private static int distance(Position a, Position b) {
+        return Math.abs(a.getX() - b.getX()) + Math.abs(a.getY() - b.getY());
+    }
+
+    /**
+     * @return first step of the path found to dest, or src if none was
+     */
+    Position firstStep(Position dest) {
+        Position ret = dest;
+        if (prev.get(ret) == null || ret.equals(src)) return src;
+        while (!prev.get(ret).equals(src)) {
+            ret = prev.get(ret);
+        }
+        return ret;
+    }
+
+    /**
+     * @return the path found from src to dest, first step first, empty if
+     * there is none
+     */
+    List<Position> path(Position dest) {
+        LinkedList<Position> res = new LinkedList<>();
+        if (prev.get(dest) == null || dest.equals(src)) return res;
+        for (Position p = dest; p != null && !p.equals(src); p = prev.get(p)) res.addFirst(p);
+        return res;
+    }
+}
@@ -0,0 +1,146 @@
+package dungeonmania.map;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import dungeonmania.entities.PositionalEntity;
+import dungeonmania.entities.StandardPortal;
+import dungeonmania.util.Position;
+
+/**
+ * DistanceField -- Dijkstra run backwards from a target, giving every tile
+ * within range the first step of a shortest path from it to the target. It
+ * follows the same rules as GameMap.dijkstraPathFind for one kind of mover:
+ * its passability, swamp weights if weighted, and portals (a step into a
+ * portal lands directly on a free tile next to the other end).
+ *
+ * The step from a tile is picked when it is asked for, from the distances of
+ * the tiles around it, so that ties between equally short paths go the same
+ * way as in DijkstraSearch.
+ */
+public class DistanceField {
+    private final GameMap map;
+    private final Position target;
+    private final boolean weighted;
+    private Map<Position, Integer> dist = new HashMap<>();
+    // tiles the mover can step onto, with their distance final
+    private Set<Position> open = new HashSet<>();
+    // portals the mover can step into, and the tiles they land it on
+    private Map<Position, List<Position>> landings = new HashMap<>();
+
+    private static final class Entry implements Comparable<Entry> {
+        private final Position position;
+        private final int dist;
+        private final long order;
+
+        private Entry(Position position, int dist, long order) {
+            this.position = position;
+            this.dist = dist;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            if (dist != other.dist) return Integer.compare(dist, other.dist);
+            return Long.compare(order, other.order);
+        }
+    }
+
+    DistanceField(GameMap map, Position target, PositionalEntity mover, boolean weighted, int maxDist) {
+        this.map = map;
+        this.target = asKey(target);
+        this.weighted = weighted;
+
+        // the tiles a step into each portal can land on
+        Map<Position, List<StandardPortal>> portalsTo = new HashMap<>();
+        for (StandardPortal portal : map.getEntities(StandardPortal.class)) {
+            List<Position> dests = portal.getDestPositions(map, mover);
+            if (dests == null) continue;
+            dests.forEach(d -> portalsTo.computeIfAbsent(asKey(d), k -> new ArrayList<>()).add(portal));
+            if (map.canMoveTo(mover, portal.getPosition())) landings.put(asKey(portal.getPosition()), dests);
+        }
+
+        PriorityQueue<Entry> q = new PriorityQueue<>();
+        long order = 0;
+        dist.put(this.target, 0);
+        q.add(new Entry(this.target, 0, order++));
+        while (!q.isEmpty()) {
+            Entry curr = q.poll();
+            Position t = curr.position;
+            if (curr.dist != dist.get(t)) continue;
+            if (curr.dist > maxDist) break;
+            // nothing can step onto t, or stepping onto it teleports instead
+            if (!map.canMoveTo(mover, t) || map.isPortalTile(t)) continue;
+            open.add(t);
+
+            int cost = weighted ? map.getTileWeight(t) : 1;
+            for (int i = 0; i < Position.CARDINAL_COUNT; i++) {
+                Position x = Position.ofPacked(Position.cardinalPacked(t.pack(), i));
+                if (relax(map, x, curr.dist + cost)) q.add(new Entry(x, curr.dist + cost, order++));
+            }
+            for (StandardPortal portal : portalsTo.getOrDefault(t, List.of())) {
+                Position p = portal.getPosition();
+                if (!map.canMoveTo(mover, p)) continue;
+                int portalCost = weighted ? map.getTileWeight(p) : 1;
+                for (int i = 0; i < Position.CARDINAL_COUNT; i++) {
+                    Position x = Position.ofPacked(Position.cardinalPacked(p.pack(), i));
+                    if (relax(map, x, curr.dist + portalCost))
+                        q.add(new Entry(x, curr.dist + portalCost, order++));
+                }
+            }
+        }
+    }
+
+    private boolean relax(GameMap map, Position x, int newDist) {
+        // movers never search onwards from a portal tile
+        if (map.isPortalTile(x)) return false;
+        if (newDist >= dist.getOrDefault(x, Integer.MAX_VALUE)) return false;
+        dist.put(x, newDist);
+        return true;
+    }
+
+    private static Position asKey(Position p) {
+        return Position.of(p.getX(), p.getY());
+    }
+
+    public Position getTarget() {
+        return target;
+    }
+
+    /**
+     * @return first step from p towards the target, or null if it is out of
+     * range or unreachable
+     */
+    public Position getNextStep(Position p) {
+        Position best = null;
+        int bestDist = Integer.MAX_VALUE;
+        int bestRank = Integer.MAX_VALUE;
+        for (int i = 0; i < Position.CARDINAL_COUNT; i++) {
+            Position n = Position.ofPacked(Position.cardinalPacked(p.pack(), i));
+            int cost = weighted ? map.getTileWeight(n) : 1;
+            // a step into a portal is a step onto one of its landing tiles
+            List<Position> steps = landings.getOrDefault(n, List.of(n));
+            for (int j = 0; j < steps.size(); j++) {
+                Position step = asKey(steps.get(j));
+                if (!open.contains(step)) continue;
+                int d = cost + dist.get(step);
+                int rank = DijkstraSearch.stepRank(i) + j;
+                if (d < bestDist || d == bestDist && rank < bestRank) {
+                    best = step;
+                    bestDist = d;
+                    bestRank = rank;
+                }
+            }
+        }
+        return best;
+    }
+
+    public int getDistance(Position p) {
+        return dist.getOrDefault(p, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,151 @@
+package dungeonmania.map;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import dungeonmania.entities.StandardPortal;
+import dungeonmania.entities.enemies.Mercenary;
+import dungeonmania.util.Position;
+
+/**
+ * EnemyPlanner -- works out the steps of all hostile mercenaries at once, in
+ * parallel, the first time one of them moves in a tick. The searches run on
+ * the common ForkJoinPool over a PassabilitySnapshot, since hostile
+ * mercenaries all see the map the same way.
+ *
+ * The mercenaries still move one at a time in the order their callbacks run.
+ * Each plan remembers the tiles its search read, and a mercenary only takes
+ * its planned step if none of them has changed since the snapshot and it and
+ * the player are where they were. Otherwise it searches the map itself, so
+ * the moves are exactly those of searching one by one.
+ *
+ * The snapshot is taken once and kept. Each time it plans, only the tiles
+ * changed since the last plan and the portal tiles are read again. That
+ * work happens before the searches start.
+ *
+ * Enemies crowded together keep changing the tiles the others' searches
+ * read, so while few plans are taken planning backs off for a few ticks.
+ */
+final class EnemyPlanner {
+    // with fewer hostile mercenaries than this it is not worth a snapshot
+    public static final int MIN_ENEMIES = 2;
+    // the player may move after some enemies, so plan again once it has
+    public static final int MAX_PLANS_PER_TICK = 2;
+    // back off if fewer than 1 in this many plans asked for are taken
+    public static final int MIN_TAKEN_RATIO = 4;
+    public static final int MAX_BACKOFF = 16;
+
+    private final GameMap map;
+    private final TileGrid nodes;
+    private int tick = -1;
+    private int plansThisTick = 0;
+    private int asked = 0;
+    private int taken = 0;
+    private int backoff = 0;
+    private int skipUntil = -1;
+    // mercenaries that have moved this tick
+    private Set<String> moved = new HashSet<>();
+    private Position dest = null;
+    private PassabilitySnapshot snapshot = null;
+    private Map<String, Plan> plans = new HashMap<>();
+    // tiles changed since the snapshot was brought up to date
+    private Set<Position> changed = new HashSet<>();
+
+    private static final class Plan {
+        private final String id;
+        private final Position src;
+        private final Position dest;
+        private final boolean weighted;
+        private final Set<Position> touched = new HashSet<>();
+        private Position step = null;
+
+        private Plan(Mercenary mercenary, Position dest) {
+            this.id = mercenary.getId();
+            this.src = mercenary.getPosition();
+            this.dest = dest;
+            this.weighted = !mercenary.getReachedAdjacency();
+        }
+    }
+
+    EnemyPlanner(GameMap map, TileGrid nodes) {
+        this.map = map;
+        this.nodes = nodes;
+    }
+
+    void tileChanged(Position p) {
+        if (snapshot != null) changed.add(Position.of(p.getX(), p.getY()));
+    }
+
+    /**
+     * @return the step planned for mercenary this tick, or null if it has to
+     * search for itself
+     */
+    Position step(Mercenary mercenary) {
+        if (tick != map.getTick()) {
+            startTick();
+            if (tick >= skipUntil) planAll();
+        } else if (!plans.isEmpty() && !map.getPlayerPosition().equals(dest) && plansThisTick < MAX_PLANS_PER_TICK) {
+            planAll();
+        }
+        moved.add(mercenary.getId());
+        Plan plan = plans.remove(mercenary.getId());
+        if (plan == null) return null;
+        asked++;
+        if (plan.step == null
+                || !plan.src.equals(mercenary.getPosition())
+                || !plan.dest.equals(map.getPlayerPosition())
+                || plan.weighted == mercenary.getReachedAdjacency()) {
+            return null;
+        }
+        for (Position p : changed) {
+            if (plan.touched.contains(p) && !snapshot.holds(map, nodes, mercenary, p)) return null;
+        }
+        taken++;
+        return plan.step;
+    }
+
+    private void startTick() {
+        if (asked > 0) {
+            backoff = (taken * MIN_TAKEN_RATIO < asked) ? Math.min(Math.max(1, backoff * 2), MAX_BACKOFF) : 0;
+            skipUntil = map.getTick() + backoff;
+        }
+        tick = map.getTick();
+        plansThisTick = 0;
+        asked = 0;
+        taken = 0;
+        moved.clear();
+        plans.clear();
+    }
+
+    private void planAll() {
+        plansThisTick++;
+        dest = map.getPlayerPosition();
+        plans.clear();
+        List<Mercenary> hostile = map.getEntities(Mercenary.class).stream()
+            .filter(m -> !m.isAllied() && !moved.contains(m.getId()))
+            .collect(Collectors.toList());
+        if (hostile.size() < MIN_ENEMIES) return;
+
+        Mercenary mover = hostile.get(0);
+        if (snapshot == null) {
+            snapshot = new PassabilitySnapshot(map, nodes, mover);
+        } else {
+            changed.forEach(p -> snapshot.refresh(map, nodes, mover, p));
+            // where a portal lands depends on the tiles round its other end
+            map.getEntities(StandardPortal.class).forEach(portal ->
+                snapshot.refresh(map, nodes, mover, portal.getPosition()));
+        }
+        changed.clear();
+        List<Plan> planned = hostile.stream().map(m -> new Plan(m, dest)).collect(Collectors.toList());
+        // a plan only reads the snapshot and writes itself
+        planned.parallelStream().forEach(plan -> {
+            TileView view = snapshot.view(plan.weighted, plan.touched);
+            plan.step = DijkstraSearch.firstStep(view, plan.src, plan.dest, GameMap.MAX_SEARCH_DISTANCE);
+        });
+        planned.forEach(plan -> plans.put(plan.id, plan));
+    }
+}
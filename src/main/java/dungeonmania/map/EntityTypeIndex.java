@@ -0,0 +1,78 @@
+package dungeonmania.map;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import dungeonmania.entities.PositionalEntity;
+
+/**
+ * EntityTypeIndex -- live index from concrete entity class to the entities on
+ * the map. A query for a supertype (Enemy, Conductor, LogicalEntity, ...) is
+ * answered from a cached view over the concrete classes it covers, so it costs
+ * O(matches) rather than a scan of every tile.
+ */
+public class EntityTypeIndex {
+    private Map<Class<?>, Set<PositionalEntity>> byClass = new LinkedHashMap<>();
+    private Map<Class<?>, List<Set<PositionalEntity>>> views = new HashMap<>();
+
+    public void add(PositionalEntity entity) {
+        Set<PositionalEntity> entities = byClass.get(entity.getClass());
+        if (entities == null) {
+            entities = new LinkedHashSet<>();
+            byClass.put(entity.getClass(), entities);
+            // a new concrete class can belong to any existing view
+            views.clear();
+        }
+        entities.add(entity);
+    }
+
+    public void remove(PositionalEntity entity) {
+        Set<PositionalEntity> entities = byClass.get(entity.getClass());
+        if (entities != null) entities.remove(entity);
+    }
+
+    public boolean contains(PositionalEntity entity) {
+        Set<PositionalEntity> entities = byClass.get(entity.getClass());
+        return entities != null && entities.contains(entity);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Set<PositionalEntity> entities : byClass.values()) size += entities.size();
+        return size;
+    }
+
+    public <T> List<T> get(Class<T> type) {
+        List<Set<PositionalEntity>> view = view(type);
+        int size = 0;
+        for (Set<PositionalEntity> entities : view) size += entities.size();
+        List<T> res = new ArrayList<>(size);
+        for (Set<PositionalEntity> entities : view) {
+            for (PositionalEntity e : entities) res.add(type.cast(e));
+        }
+        return res;
+    }
+
+    public long count(Class<?> type) {
+        long count = 0;
+        for (Set<PositionalEntity> entities : view(type)) count += entities.size();
+        return count;
+    }
+
+    private List<Set<PositionalEntity>> view(Class<?> type) {
+        List<Set<PositionalEntity>> view = views.get(type);
+        if (view == null) {
+            view = new ArrayList<>();
+            for (Map.Entry<Class<?>, Set<PositionalEntity>> entry : byClass.entrySet()) {
+                if (type.isAssignableFrom(entry.getKey())) view.add(entry.getValue());
+            }
+            views.put(type, view);
+        }
+        return view;
+    }
+}
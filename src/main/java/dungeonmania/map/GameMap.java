@@ -1,12 +1,14 @@
 package dungeonmania.map;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import org.json.JSONArray;
 import org.json.JSONObject;
 
 import dungeonmania.Game;
@@ -21,21 +23,59 @@ import dungeonmania.entities.Player;
 import dungeonmania.entities.StandardPortal;
 import dungeonmania.entities.SwampTile;
 import dungeonmania.entities.Switch;
+import dungeonmania.entities.Wall;
 import dungeonmania.entities.Wire;
 import dungeonmania.entities.collectables.Bomb;
 import dungeonmania.entities.enemies.Enemy;
 import dungeonmania.entities.enemies.Mercenary;
+import dungeonmania.entities.enemies.Spider;
 import dungeonmania.entities.enemies.ZombieToastSpawner;
 import dungeonmania.entities.logical.LogicalEntity;
 import dungeonmania.util.Direction;
+import dungeonmania.util.GameRandom;
 import dungeonmania.util.Position;
 
 
 public class GameMap {
+    // searches give up past this distance
+    public static final int MAX_SEARCH_DISTANCE = 200;
+
     private Game game;
-    private Map<Position, GraphNode> nodes = new HashMap<>();
+    private TileGrid nodes = new TileGrid();
+    private EntityTypeIndex typeIndex = new EntityTypeIndex();
+    private Map<String, PositionalEntity> idIndex = new HashMap<>();
+    private MapChanges changes = new MapChanges();
+    // null unless region paging is on
+    private RegionPager pager = null;
+
+    // shared by every hostile mercenary for a tick, see stepTowardsPlayer
+    private boolean sharedMercenaryField = false;
+    private DistanceField mercenaryField = null;
+    private int mercenaryFieldTick = -1;
+    private boolean mercenaryFieldWeighted = false;
     private Player player;
 
+    // lower bounds for path searches, rebuilt after a wall goes away
+    private boolean landmarksEnabled = false;
+    private Landmarks landmarks = null;
+    private int clusterSize = ClusterGraph.DEFAULT_CLUSTER_SIZE;
+    private ClusterGraph clusters = null;
+    // by mercenary id
+    private Map<String, DStarLite> planners = new HashMap<>();
+    // arrays reused by every SearchAlgorithm.BUCKET search
+    private BucketDijkstra dijkstra = new BucketDijkstra(this);
+    private PortalEdges portalEdges = new PortalEdges(this, nodes);
+    // null unless hostile mercenaries are planned for in parallel
+    private EnemyPlanner enemyPlanner = null;
+    // null unless dijkstraPathFind is limited each tick
+    private PathBudget pathBudget = null;
+    private PathCache pathCache = null;
+    private ActivityCuller activityCuller = null;
+    // moves on when something other than the player or an enemy changes
+    // passability, and when anything on a tile changes
+    private int topologyVersion = 0;
+    private int tileVersion = 0;
+
     /**
      * Initialise the game map
      * 1. pair up portals
@@ -48,6 +88,7 @@ public class GameMap {
         initEntitiesOnSwampTiles();
         initRegisterConductors();
         initRegisterLogicalEntities();
+        getLandmarks();
     }
 
     public void init(JSONObject json) {
@@ -112,27 +153,20 @@ public class GameMap {
     // Pair up portals if there's any
     private void initPairPortals() {
         Map<String, StandardPortal> portalsMap = new HashMap<>();
-        nodes.forEach((k, v) -> {
-            v.getEntities()
-                    .stream()
-                    .filter(StandardPortal.class::isInstance)
-                    .map(StandardPortal.class::cast)
-                    .forEach(portal -> {
-                        String color = portal.getColor();
-                        if (portalsMap.containsKey(color)) {
-                            portal.bind(portalsMap.get(color));
-                        } else {
-                            portalsMap.put(color, portal);
-                        }
-                    });
+        getEntities(StandardPortal.class).forEach(portal -> {
+            String color = portal.getColor();
+            if (portalsMap.containsKey(color)) {
+                portal.bind(portalsMap.get(color));
+            } else {
+                portalsMap.put(color, portal);
+            }
         });
+        portalEdges.build(getEntities(StandardPortal.class));
     }
 
     private void initRegisterMovables() {
         List<Enemy> enemies = getEntities(Enemy.class);
-        enemies.forEach(e -> {
-            game.register(() -> e.move(game), Game.AI_MOVEMENT, e.getId());
-        });
+        enemies.forEach(this::registerEnemy);
         List<OlderPlayer> older = getEntities(OlderPlayer.class);
         if (older.size() != 0) {
             game.register(() -> older.get(0).replicatePath(game,
@@ -141,11 +175,24 @@ public class GameMap {
     }
 
     private void initRegisterSpawners() {
+        int zombieInterval = game.getEntityFactory().getZombieSpawnInterval();
         List<ZombieToastSpawner> zts = getEntities(ZombieToastSpawner.class);
         zts.forEach(e -> {
-            game.register(() -> e.spawn(game), Game.AI_MOVEMENT, e.getId());
+            scheduleSpawn(() -> e.spawn(game), zombieInterval, e.getId(), getTick());
         });
-        game.register(() -> game.spawnSpider(game), Game.AI_MOVEMENT, "zombieToastSpawner");
+        scheduleSpawn(() -> game.spawnSpider(game), game.getEntityFactory().getSpiderSpawnInterval(),
+            "zombieToastSpawner", getTick());
+    }
+
+    // spawners only spawn on the tick before each multiple of interval, so
+    // they are woken on the first of those from tick on and not in between
+    private void scheduleSpawn(Runnable spawn, int interval, String id, int tick) {
+        if (interval <= 0) return;
+        int due = (tick + interval) / interval * interval - 1;
+        game.schedule(() -> {
+            spawn.run();
+            scheduleSpawn(spawn, interval, id, getTick() + 1);
+        }, due, Game.AI_MOVEMENT, id);
     }
 
     // This ensures that any relevant entities initialised where a swamp tile is
@@ -160,126 +207,362 @@ public class GameMap {
     public void moveTo(PositionalEntity entity, Position position) {
         if (!canMoveTo(entity, position)) return;
         triggerMovingAwayEvent(entity);
-        removeNode(entity);
+        removeFromTile(entity);
+        changes.tileChanged(entity.getPosition());
+        if (activityCuller != null && entity == player
+                && Position.calculatePositionBetween(entity.getPosition(), position).magnitude() > 1)
+            activityCuller.playerJumped(game);
         entity.setPosition(position);
-        addEntity(entity);
+        if (isMover(entity)) loadRegionsAround(position);
+        addToTile(entity);
+        changes.entityChanged(entity);
         triggerOverlapEvent(entity);
     }
 
     public void moveTo(PositionalEntity entity, Direction direction) {
-        if (!canMoveTo(entity, Position.translateBy(entity.getPosition(), direction))) return;
-        triggerMovingAwayEvent(entity);
-        removeNode(entity);
-        entity.setPosition(Position.translateBy(entity.getPosition(), direction));
-        addEntity(entity);
-        triggerOverlapEvent(entity);
+        moveTo(entity, Position.translateBy(entity.getPosition(), direction));
     }
 
+    // Events go to the entities on the tile when the event starts, even if an
+    // earlier callback changes the tile. Terrain walls take no events.
     private void triggerMovingAwayEvent(PositionalEntity entity) {
-        List<Runnable> callbacks = new ArrayList<>();
-        getEntities(entity.getPosition()).forEach(e -> {
-            if (e != entity && e instanceof MoveAwayable) {
-                MoveAwayable eMovable = (MoveAwayable) e;
-                callbacks.add(() -> eMovable.onMovedAway(this, entity));
-            }
-        });
-        callbacks.forEach(callback -> {
-            callback.run();
-        });
+        GraphNode node = nodes.get(entity.getPosition());
+        if (node == null) return;
+        for (PositionalEntity e : node.toArray()) {
+            if (e != entity && e instanceof MoveAwayable)
+                ((MoveAwayable) e).onMovedAway(this, entity);
+        }
     }
 
     private void triggerOverlapEvent(PositionalEntity entity) {
-        List<Runnable> overlapCallbacks = new ArrayList<>();
-        getEntities(entity.getPosition()).forEach(e -> {
-            if (e != entity && e instanceof Overlappable) {
-                Overlappable eOverlap = (Overlappable) e;
-                overlapCallbacks.add(() -> eOverlap.onOverlap(this, entity));
-            }
-        });
-        overlapCallbacks.forEach(callback -> {
-            callback.run();
-        });
+        GraphNode node = nodes.get(entity.getPosition());
+        if (node == null) return;
+        for (PositionalEntity e : node.toArray()) {
+            if (e != entity && e instanceof Overlappable)
+                ((Overlappable) e).onOverlap(this, entity);
+        }
     }
 
     public boolean canMoveTo(PositionalEntity entity, Position position) {
-        return !nodes.containsKey(position) || nodes.get(position).canMoveOnto(this, entity);
+        return canMoveTo(entity, position.getX(), position.getY());
     }
 
+    boolean canMoveTo(PositionalEntity entity, int x, int y) {
+        // only spiders can climb walls, see Wall.canMoveOnto
+        if (nodes.hasWall(x, y) && !(entity instanceof Spider)) return false;
+        GraphNode node = nodes.get(x, y);
+        return node == null || node.canMoveOnto(this, entity);
+    }
 
-    public Position dijkstraPathFind(Position src, Position dest, PositionalEntity entity) {
+
+    /**
+     * Next step for a hostile mercenary chasing the player. With the shared
+     * field on, every hostile mercenary (they all see the map the same way)
+     * reads its step from one distance field from the player per tick instead
+     * of searching separately, falling back to a search of its own if the step
+     * it gets has been taken since. Ties between equally short paths go the
+     * same way as in the search.
+     */
+    public Position stepTowardsPlayer(Mercenary mercenary, SearchAlgorithm algorithm) {
+        Position playerPosition = getPlayerPosition();
+        if (enemyPlanner != null && !sharedMercenaryField && algorithm == SearchAlgorithm.DIJKSTRA) {
+            Position planned = enemyPlanner.step(mercenary);
+            if (planned != null) return planned;
+        }
+        if (!sharedMercenaryField)
+            return pathFind(mercenary.getPosition(), playerPosition, mercenary, algorithm);
+        boolean weighted = !mercenary.getReachedAdjacency();
+        if (mercenaryField == null
+                || mercenaryFieldTick != getTick()
+                || mercenaryFieldWeighted != weighted
+                || !mercenaryField.getTarget().equals(playerPosition)) {
+            mercenaryField = new DistanceField(this, playerPosition, mercenary, weighted, MAX_SEARCH_DISTANCE);
+            mercenaryFieldTick = getTick();
+            mercenaryFieldWeighted = weighted;
+        }
+        Position next = mercenaryField.getNextStep(mercenary.getPosition());
+        if (next == null || !canMoveTo(mercenary, next))
+            return pathFind(mercenary.getPosition(), playerPosition, mercenary, algorithm);
+        return next;
+    }
+
+    /**
+     * Plan the steps of all hostile mercenaries in parallel at the start of
+     * their moves each tick, see EnemyPlanner. Only plain DIJKSTRA searches
+     * are planned for.
+     */
+    public void enableParallelPlanning() {
+        this.enemyPlanner = new EnemyPlanner(this, nodes);
+    }
+
+    /**
+     * Put enemies other than mercenaries to sleep while they are more than
+     * radius tiles from the player, see ActivityCuller. Mercenaries head for
+     * the player from any distance, so they are always moved.
+     */
+    public void enableActivityCulling(int radius) {
+        this.activityCuller = new ActivityCuller(this, radius);
+    }
+
+    /**
+     * Move e in every tick it is awake
+     */
+    public void registerEnemy(Enemy e) {
+        if (activityCuller != null && !(e instanceof Mercenary))
+            activityCuller.register(game, e);
+        else
+            game.register(() -> e.move(game), Game.AI_MOVEMENT, e.getId());
+    }
+
+    /**
+     * @return how many enemies activity culling has put to sleep
+     */
+    public int getSleepingEnemyCount() {
+        return (activityCuller != null) ? activityCuller.getSleepingCount() : 0;
+    }
+
+    public void setSharedMercenaryField(boolean sharedMercenaryField) {
+        this.sharedMercenaryField = sharedMercenaryField;
+        this.mercenaryField = null;
+    }
+
+    /**
+     * @return where each portal lets movers out, see PortalEdges
+     */
+    public PortalEdges getPortalEdges() {
+        return portalEdges;
+    }
+
+    /**
+     * @return the tiles with something on them
+     */
+    TileGrid getNodes() {
+        return nodes;
+    }
+
+    boolean isPortalTile(Position p) {
+        return getPortal(p) != null;
+    }
+
+    StandardPortal getPortal(Position p) {
+        return getPortal(p.getX(), p.getY());
+    }
+
+    StandardPortal getPortal(int x, int y) {
+        GraphNode node = nodes.get(x, y);
+        if (node == null) return null;
+        for (int i = 0; i < node.size(); i++) {
+            if (node.get(i) instanceof StandardPortal) return (StandardPortal) node.get(i);
+        }
+        return null;
+    }
+
+    int getTileWeight(Position p) {
+        return getTileWeight(p.getX(), p.getY());
+    }
+
+    int getTileWeight(int x, int y) {
+        GraphNode node = nodes.get(x, y);
+        return (node != null) ? node.getWeight() : 1;
+    }
+
+    boolean isWall(int x, int y) {
+        if (nodes.hasWall(x, y)) return true;
+        GraphNode node = nodes.get(x, y);
+        if (node == null) return false;
+        for (int i = 0; i < node.size(); i++) {
+            if (node.get(i) instanceof Wall) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether a mercenary-like mover could step onto the tile if the player
+     * and the enemies were out of the way. Portals count as closed, they are
+     * stepped into rather than onto.
+     */
+    boolean isStaticallyOpen(int x, int y, PositionalEntity mover) {
+        if (nodes.hasWall(x, y)) return false;
+        GraphNode node = nodes.get(x, y);
+        if (node == null) return true;
+        for (int i = 0; i < node.size(); i++) {
+            PositionalEntity e = node.get(i);
+            if (e instanceof Player || e instanceof Enemy) continue;
+            if (e instanceof StandardPortal || !e.canMoveOnto(this, mover)) return false;
+        }
+        return true;
+    }
+
+    public void setClusterSize(int clusterSize) {
+        this.clusterSize = clusterSize;
+        this.clusters = null;
+    }
+
+    /**
+     * Precompute landmark distances when the map is initialised, for A*
+     * searches to use as a lower bound, see Landmarks
+     */
+    public void enableLandmarks() {
+        this.landmarksEnabled = true;
+    }
+
+    /**
+     * @return the landmark distances, or null if they are off or the map is
+     * too large for them
+     */
+    public Landmarks getLandmarks() {
+        if (landmarksEnabled && landmarks == null) landmarks = Landmarks.build(this, nodes);
+        return landmarks;
+    }
+
+    /**
+     * Cost for entity of stepping onto p, allied mercenaries next to the
+     * player ignore swamp tiles
+     */
+    int getStepCost(PositionalEntity entity, Position p) {
+        return getStepCost(entity, p.getX(), p.getY());
+    }
+
+    int getStepCost(PositionalEntity entity, int x, int y) {
+        if (entity instanceof Mercenary && ((Mercenary) entity).getReachedAdjacency()) return 1;
+        return getTileWeight(x, y);
+    }
+
+    /**
+     * First step of a shortest path from src to dest for entity, found with
+     * the given algorithm, or src if there is none
+     */
+    public Position pathFind(Position src, Position dest, PositionalEntity entity, SearchAlgorithm algorithm) {
+        if (algorithm == SearchAlgorithm.DIJKSTRA) return dijkstraPathFind(src, dest, entity);
         // if inputs are invalid, don't move
-        if (!nodes.containsKey(src) || !nodes.containsKey(dest))
-        return src;
-
-        Map<Position, Integer> dist = new HashMap<>();
-        Map<Position, Position> prev = new HashMap<>();
-        Map<Position, Boolean> visited = new HashMap<>();
-
-        prev.put(src, null);
-        dist.put(src, 0);
-
-        PriorityQueue<Position> q = new PriorityQueue<>((x, y) ->
-            Integer.compare(dist.getOrDefault(x, Integer.MAX_VALUE), dist.getOrDefault(y, Integer.MAX_VALUE)));
-        q.add(src);
-
-        while (!q.isEmpty()) {
-            Position curr = q.poll();
-            if (curr.equals(dest) || dist.get(curr) > 200) break;
-            // check portal
-            if (nodes.containsKey(curr)
-            && nodes.get(curr).getEntities().stream().anyMatch(StandardPortal.class::isInstance)) {
-                StandardPortal portal = nodes.get(curr).getEntities()
-                    .stream()
-                    .filter(StandardPortal.class::isInstance).map(StandardPortal.class::cast)
-                    .collect(Collectors.toList())
-                    .get(0);
-                List<Position> teleportDest = portal.getDestPositions(this, entity);
-                teleportDest.stream()
-                .filter(p -> !visited.containsKey(p))
-                .forEach(p -> {
-                    dist.put(p, dist.get(curr));
-                    prev.put(p, prev.get(curr));
-                    q.add(p);
-                });
-                continue;
+        if (!nodes.contains(src) || !nodes.contains(dest)) return src;
+        if (algorithm == SearchAlgorithm.BUCKET) return dijkstra.firstStep(src, dest, entity, MAX_SEARCH_DISTANCE);
+        if (algorithm == SearchAlgorithm.HIERARCHICAL && usesTileWeights(entity)) {
+            if (clusters == null) clusters = new ClusterGraph(this, clusterSize);
+            Position step = clusters.firstStep(src, dest, entity, MAX_SEARCH_DISTANCE);
+            if (step != null) return step;
+        }
+        if (algorithm == SearchAlgorithm.INCREMENTAL && usesTileWeights(entity)) {
+            DStarLite planner = planners.computeIfAbsent(entity.getId(), id -> new DStarLite(this, entity));
+            Position step = planner.nextStep(src, dest, MAX_SEARCH_DISTANCE);
+            // plan around enemies in the way rather than take A*'s step, the
+            // two can lead opposite ways and leave the mercenary pacing
+            while (!step.equals(src) && !canMoveTo(entity, step)) {
+                planner.stepBlocked(step);
+                step = planner.nextStep(src, dest, MAX_SEARCH_DISTANCE);
             }
-            visited.put(curr, true);
-            List<Position> neighbours = curr.getCardinallyAdjacentPositions()
-            .stream()
-            .filter(p -> !visited.containsKey(p))
-            .filter(p -> !nodes.containsKey(p) || nodes.get(p).canMoveOnto(this, entity))
-            .collect(Collectors.toList());
-
-            neighbours.forEach(n -> {
-                boolean checkSwampTile = true;
-                if (entity instanceof Mercenary) {
-                    Mercenary m = (Mercenary) entity;
-                    checkSwampTile = !m.getReachedAdjacency();
-                }
-                int newDist = dist.get(curr) + (nodes.containsKey(n) && checkSwampTile ? nodes.get(n).getWeight() : 1);
-                if (newDist < dist.getOrDefault(n, Integer.MAX_VALUE)) {
-                    q.remove(n);
-                    dist.put(n, newDist);
-                    prev.put(n, curr);
-                    q.add(n);
-                }
-            });
+            return step;
         }
-        Position ret = dest;
-        if (prev.get(ret) == null || ret.equals(src)) return src;
-        while (!prev.get(ret).equals(src)) {
-            ret = prev.get(ret);
+        return AStarSearch.firstStep(this, src, dest, entity, MAX_SEARCH_DISTANCE);
+    }
+
+    // the cluster costs and planners are for mercenaries paying full tile
+    // weights
+    private boolean usesTileWeights(PositionalEntity entity) {
+        return entity instanceof Mercenary && !((Mercenary) entity).getReachedAdjacency();
+    }
+
+    public Position dijkstraPathFind(Position src, Position dest, PositionalEntity entity) {
+        if (pathBudget == null && pathCache != null) return cachedPathFind(src, dest, entity);
+        if (pathBudget == null) return DijkstraSearch.firstStep(new LiveView(entity), src, dest, MAX_SEARCH_DISTANCE);
+        // if inputs are invalid, don't move
+        if (!nodes.contains(src) || !nodes.contains(dest)) return src;
+        boolean weighted = !(entity instanceof Mercenary && ((Mercenary) entity).getReachedAdjacency());
+        return pathBudget.firstStep(new LiveView(entity), entity.getId(), getTick(),
+            src, dest, weighted, MAX_SEARCH_DISTANCE);
+    }
+
+    private Position cachedPathFind(Position src, Position dest, PositionalEntity entity) {
+        MoverCategory mover = MoverCategory.of(entity);
+        if (mover == null) return DijkstraSearch.firstStep(new LiveView(entity), src, dest, MAX_SEARCH_DISTANCE);
+        boolean weighted = !(entity instanceof Mercenary && ((Mercenary) entity).getReachedAdjacency());
+        Position step = pathCache.get(src, dest, mover, weighted, topologyVersion, tileVersion);
+        if (step != null && (step.equals(src) || canMoveTo(entity, step))) return step;
+        List<Position> path = DijkstraSearch.path(new LiveView(entity), src, dest, MAX_SEARCH_DISTANCE);
+        pathCache.put(src, dest, mover, weighted, path, topologyVersion, tileVersion);
+        return path.isEmpty() ? src : path.get(0);
+    }
+
+    /**
+     * Serve repeated dijkstraPathFind queries from a cache, see PathCache
+     */
+    public void setPathCache(PathCache pathCache) {
+        this.pathCache = pathCache;
+    }
+
+    public PathCache getPathCache() {
+        return pathCache;
+    }
+
+    /**
+     * Limit the work dijkstraPathFind does each tick, see PathBudget
+     */
+    public void setPathBudget(PathBudget pathBudget) {
+        this.pathBudget = pathBudget;
+    }
+
+    // the map as entity sees it, for DijkstraSearch
+    private class LiveView implements TileView {
+        private final PositionalEntity entity;
+
+        private LiveView(PositionalEntity entity) {
+            this.entity = entity;
+        }
+
+        @Override
+        public boolean contains(Position p) {
+            return nodes.contains(p);
+        }
+
+        @Override
+        public boolean canMoveTo(Position p) {
+            return GameMap.this.canMoveTo(entity, p);
+        }
+
+        @Override
+        public int getStepCost(Position p) {
+            return GameMap.this.getStepCost(entity, p);
+        }
+
+        @Override
+        public List<Position> getPortalLandings(Position p) {
+            StandardPortal portal = getPortal(p);
+            if (portal == null) return null;
+            List<Position> landings = portal.getDestPositions(GameMap.this, entity);
+            return (landings != null) ? landings : List.of();
         }
-        return ret;
     }
 
     public void removeNode(PositionalEntity entity) {
+        if (entity instanceof Wall) landmarks = null;
+        if (isTerrainWall(entity)) {
+            if (nodes.removeWall(entity.getPosition())) {
+                changes.entityRemoved(entity);
+                terrainChanged(entity.getPosition(), entity);
+            }
+            return;
+        }
+        if (idIndex.get(entity.getId()) == entity) changes.entityRemoved(entity);
+        if (entity instanceof Mercenary) planners.remove(entity.getId());
+        if (entity instanceof Enemy && activityCuller != null) activityCuller.enemyRemoved(entity.getId());
+        if (entity instanceof StandardPortal) portalEdges.portalRemoved((StandardPortal) entity);
+        if (pathBudget != null) pathBudget.moverRemoved(entity.getId());
+        removeFromTile(entity);
+        typeIndex.remove(entity);
+        idIndex.remove(entity.getId(), entity);
+        entity.setMap(null);
+    }
+
+    // Moving entities only changes tiles, the indexes stay as they are
+    private void removeFromTile(PositionalEntity entity) {
         Position p = entity.getPosition();
-        if (nodes.containsKey(p)) {
-            nodes.get(p).removeEntity(entity);
-            if (nodes.get(p).size() == 0) {
+        GraphNode node = nodes.get(p);
+        if (node != null) {
+            node.removeEntity(entity);
+            if (node.size() == 0) {
                 nodes.remove(p);
             }
+            terrainChanged(p, entity);
         }
     }
 
@@ -299,49 +582,303 @@ public class GameMap {
     }
 
     public void addNode(GraphNode node) {
+        // plain walls go to the terrain layer instead of being kept as entities
+        if (node.size() == 1 && node.getEntities().get(0).getClass() == Wall.class) {
+            if (nodes.addWall(node.getPosition())) {
+                changes.entityChanged(Wall.fromTerrain(node.getPosition().getX(), node.getPosition().getY()));
+                terrainChanged(node.getPosition(), node.get(0));
+            }
+            return;
+        }
+        addToTile(node);
+        node.getEntities().forEach(e -> {
+            typeIndex.add(e);
+            idIndex.put(e.getId(), e);
+            e.setMap(this);
+            changes.entityChanged(e);
+        });
+        node.getEntities().stream().filter(this::isMover).findFirst().ifPresent(e -> loadRegionsAround(e.getPosition()));
+    }
+
+    /**
+     * Page passive entities in by region, see RegionPager
+     */
+    public void enableRegionPaging(int regionSize, int loadRadius) {
+        // a mover has to see the region of any tile it can step onto
+        pager = new RegionPager(regionSize, Math.max(1, loadRadius));
+    }
+
+    /**
+     * @return true if region paging kept jsonEntity back, in which case it must
+     * not be added to the map now
+     */
+    public boolean deferToRegion(JSONObject jsonEntity) {
+        return pager != null && RegionPager.isPageable(jsonEntity) && pager.defer(jsonEntity);
+    }
+
+    /**
+     * Load the regions round the movers, and round the spawners and portals,
+     * which look at the tiles next to them with no mover near
+     */
+    public void loadActiveRegions() {
+        if (pager == null) return;
+        if (player != null) loadRegionsAround(player.getPosition());
+        getEntities(Enemy.class).forEach(e -> loadRegionsAround(e.getPosition()));
+        getEntities(ZombieToastSpawner.class).forEach(s -> loadRegionsAround(s.getPosition()));
+        getEntities(StandardPortal.class).forEach(p -> loadRegionsAround(p.getPosition()));
+    }
+
+    private boolean isMover(PositionalEntity entity) {
+        return pager != null && (entity instanceof Player || entity instanceof Enemy);
+    }
+
+    private void loadRegionsAround(Position p) {
+        if (pager == null) return;
+        List<JSONObject> jsonEntities = pager.load(p);
+        if (jsonEntities.isEmpty()) return;
+        jsonEntities.forEach(json -> {
+            GraphNode node = GraphNodeFactory.createEntity(json, game.getEntityFactory());
+            if (node != null) addNode(node);
+        });
+        // restore saved state, e.g. doors that were opened
+        GameBuilder.updateEntities(new JSONArray(jsonEntities), game);
+    }
+
+    /**
+     * @return dungeon JSON of the entities region paging has not loaded yet
+     */
+    public List<JSONObject> getUnloadedEntities() {
+        return (pager != null) ? pager.getUnloaded() : new ArrayList<>();
+    }
+
+    public void discardUnloadedEntities() {
+        if (pager != null) pager.clear();
+    }
+
+    private void addToTile(PositionalEntity entity) {
+        GraphNode curr = nodes.get(entity.getPosition());
+        if (curr == null)
+            nodes.put(entity.getPosition(), new GraphNode(entity));
+        else
+            curr.addEntity(entity);
+        terrainChanged(entity.getPosition(), entity);
+    }
+
+    private void addToTile(GraphNode node) {
         Position p = node.getPosition();
+        GraphNode curr = nodes.get(p);
 
-        if (!nodes.containsKey(p))
-        nodes.put(p, node);
-        else {
-            GraphNode curr = nodes.get(p);
+        if (curr == null)
+            nodes.put(p, node);
+        else
             curr.mergeNode(node);
-            nodes.put(p, curr);
+        node.forEach(e -> terrainChanged(p, e));
+    }
+
+    /**
+     * Called by an entity on the map when its state, and possibly its
+     * passability, has changed
+     */
+    public void entityStateChanged(PositionalEntity entity) {
+        GraphNode node = nodes.get(entity.getPosition());
+        if (node != null) node.invalidate();
+        changes.entityChanged(entity);
+        if (!(entity instanceof Player || entity instanceof Enemy)) topologyVersion++;
+        terrainChanged(entity.getPosition(), entity);
+    }
+
+    // the player and the enemies come and go, anything else on a tile is
+    // terrain that searches can plan around
+    private void terrainChanged(Position p, PositionalEntity entity) {
+        // where a portal lets movers out depends on the movers round it too
+        portalEdges.tileChanged(p);
+        if (enemyPlanner != null) enemyPlanner.tileChanged(p);
+        tileVersion++;
+        if (entity instanceof Player || entity instanceof Enemy) return;
+        if (affectsPassability(entity)) topologyVersion++;
+        if (clusters != null) clusters.tileChanged(p);
+        if (pathBudget != null) pathBudget.terrainChanged();
+        planners.values().forEach(planner -> planner.tileChanged(p));
+    }
+
+    // whether entity coming or going can change a path, collectables and the
+    // like are open to everything
+    private static boolean affectsPassability(PositionalEntity entity) {
+        if (entity instanceof SwampTile) return true;
+        for (MoverCategory mover : MoverCategory.values()) {
+            if (entity.getPassability(mover) != Passability.OPEN) return true;
         }
+        return false;
+    }
+
+    public MapChanges getChanges() {
+        return changes;
     }
 
     public PositionalEntity getEntity(String id) {
-        PositionalEntity res = null;
-        for (Map.Entry<Position, GraphNode> entry : nodes.entrySet()) {
-            List<PositionalEntity> es = entry.getValue().getEntities()
-            .stream()
-            .filter(e -> e.getId().equals(id))
-            .collect(Collectors.toList());
-            if (es != null && es.size() > 0) {
-                res = es.get(0);
-                break;
-            }
+        PositionalEntity entity = idIndex.get(id);
+        if (entity == null) {
+            Position p = Wall.fromTerrainId(id);
+            if (p != null && nodes.hasWall(p)) entity = Wall.fromTerrain(p.getX(), p.getY());
         }
-        return res;
+        return entity;
+    }
+
+    /**
+     * @return true if entity is on the map. Terrain walls are materialised on
+     * demand, so they are compared by id rather than identity.
+     */
+    public boolean hasEntity(PositionalEntity entity) {
+        if (isTerrainWall(entity)) return nodes.hasWall(entity.getPosition());
+        return idIndex.get(entity.getId()) == entity;
+    }
+
+    private boolean isTerrainWall(PositionalEntity entity) {
+        return entity instanceof Wall && ((Wall) entity).isTerrain();
+    }
+
+    /**
+     * Debug check that the tiles, the type index and the id index all hold the
+     * same entities. Meant to be run under assert, e.g. assert map.checkIndexes();
+     * @return true, or throws IllegalStateException describing the first mismatch
+     */
+    public boolean checkIndexes() {
+        List<PositionalEntity> entities = getEntities();
+        entities.removeIf(this::isTerrainWall);
+        for (PositionalEntity e : entities) {
+            GraphNode node = nodes.get(e.getPosition());
+            if (node == null || !node.contains(e))
+                throw new IllegalStateException(String.format("%s is not on the tile at %s", e.getId(), e.getPosition()));
+            if (!typeIndex.contains(e))
+                throw new IllegalStateException(String.format("%s is missing from the type index", e.getId()));
+            if (idIndex.get(e.getId()) != e)
+                throw new IllegalStateException(String.format("%s is missing from the id index", e.getId()));
+        }
+        if (typeIndex.size() != entities.size())
+            throw new IllegalStateException(String.format(
+                "type index holds %d entities but the map holds %d", typeIndex.size(), entities.size()));
+        if (idIndex.size() != entities.size())
+            throw new IllegalStateException(String.format(
+                "id index holds %d entities but the map holds %d", idIndex.size(), entities.size()));
+        return true;
     }
 
     public List<PositionalEntity> getEntities(Position p) {
         GraphNode node = nodes.get(p);
+        if (nodes.hasWall(p)) {
+            List<PositionalEntity> res = new ArrayList<>();
+            res.add(Wall.fromTerrain(p.getX(), p.getY()));
+            if (node != null) res.addAll(node.getEntities());
+            return res;
+        }
         return (node != null) ? node.getEntities() : new ArrayList<>();
     }
 
+    /**
+     * Entities with minX <= x <= maxX and minY <= y <= maxY (inclusive), ordered
+     * by x, then y, then their order on the tile, i.e. the order a nested
+     * x/y loop over the rectangle would find them in
+     */
+    public List<PositionalEntity> getEntitiesInRectangle(int minX, int minY, int maxX, int maxY) {
+        return getEntitiesInRectangle(minX, minY, maxX, maxY, PositionalEntity.class);
+    }
+
+    public <T extends PositionalEntity> List<T> getEntitiesInRectangle(
+            int minX, int minY, int maxX, int maxY, Class<T> type) {
+        List<Position> inRange = new ArrayList<>();
+        nodes.forEachInRect(minX, minY, maxX, maxY, p -> inRange.add(Position.ofPacked(p)));
+        inRange.sort(Comparator.comparingInt(Position::getX).thenComparingInt(Position::getY));
+        boolean withWalls = type.isAssignableFrom(Wall.class);
+        List<T> res = new ArrayList<>();
+        for (Position p : inRange) {
+            if (withWalls && nodes.hasWall(p)) res.add(type.cast(Wall.fromTerrain(p.getX(), p.getY())));
+            GraphNode node = nodes.get(p);
+            if (node == null) continue;
+            for (PositionalEntity e : node.getEntities()) {
+                if (type.isInstance(e)) res.add(type.cast(e));
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Entities at most radius tiles away from centre in both x and y, ordered
+     * as for getEntitiesInRectangle
+     */
+    public List<PositionalEntity> getEntitiesWithinSquare(Position centre, int radius) {
+        return getEntitiesWithinSquare(centre, radius, PositionalEntity.class);
+    }
+
+    public <T extends PositionalEntity> List<T> getEntitiesWithinSquare(Position centre, int radius, Class<T> type) {
+        return getEntitiesInRectangle(centre.getX() - radius, centre.getY() - radius,
+            centre.getX() + radius, centre.getY() + radius, type);
+    }
+
+    /**
+     * Entities within a Manhattan distance of radius from centre, ordered as
+     * for getEntitiesInRectangle
+     */
+    public List<PositionalEntity> getEntitiesWithinManhattan(Position centre, int radius) {
+        return getEntitiesWithinManhattan(centre, radius, PositionalEntity.class);
+    }
+
+    public <T extends PositionalEntity> List<T> getEntitiesWithinManhattan(Position centre, int radius, Class<T> type) {
+        List<T> res = getEntitiesWithinSquare(centre, radius, type);
+        res.removeIf(e -> Math.abs(e.getPosition().getX() - centre.getX())
+            + Math.abs(e.getPosition().getY() - centre.getY()) > radius);
+        return res;
+    }
+
     public List<PositionalEntity> getEntities() {
         List<PositionalEntity> entities = new ArrayList<>();
-        nodes.forEach((k, v) -> entities.addAll(v.getEntities()));
+        forEachEntity(entities::add);
         return entities;
     }
 
+    public void forEachEntity(Consumer<PositionalEntity> action) {
+        forEachEntity(action, (x, y) -> action.accept(Wall.fromTerrain(x, y)));
+    }
+
+    public interface TerrainWallAction {
+        void accept(int x, int y);
+    }
+
+    /**
+     * Visit every entity in getEntities() order, handing terrain walls to
+     * onWall as coordinates instead of materialising them
+     */
+    public void forEachEntity(Consumer<PositionalEntity> onEntity, TerrainWallAction onWall) {
+        nodes.forEach(packed -> {
+            int x = Position.unpackX(packed);
+            int y = Position.unpackY(packed);
+            if (nodes.hasWall(x, y)) onWall.accept(x, y);
+            GraphNode node = nodes.get(x, y);
+            if (node != null) node.getEntities().forEach(onEntity);
+        });
+    }
+
     public <T extends PositionalEntity> List<T> getEntities(Class<T> type) {
-        return getEntities().stream().filter(type::isInstance).map(type::cast).collect(Collectors.toList());
+        if (nodes.getWallCount() > 0 && type.isAssignableFrom(Wall.class)) {
+            // terrain walls are not indexed, fall back to a full pass
+            List<T> res = new ArrayList<>();
+            forEachEntity(e -> {
+                if (type.isInstance(e)) res.add(type.cast(e));
+            });
+            return res;
+        }
+        List<T> res = typeIndex.get(type);
+        if (res.size() > 1) {
+            // keep the same order as getEntities()
+            res.sort(Comparator.comparingLong((T e) -> nodes.orderKey(e.getPosition()))
+                .thenComparingInt(e -> nodes.get(e.getPosition()).getEntities().indexOf(e)));
+        }
+        return res;
     }
 
     public <T extends PositionalEntity> long countEntities(Class<T> type) {
-        return getEntities().stream().filter(type::isInstance).count();
+        long count = typeIndex.count(type);
+        if (type.isAssignableFrom(Wall.class)) count += nodes.getWallCount();
+        return count;
     }
 
     public Player getPlayer() {
@@ -384,9 +921,14 @@ public class GameMap {
         return game.getTick();
     }
 
+    public GameRandom getRandom() {
+        return game.getRandom();
+    }
+
     public void timeTravelBack(int ticks) {
         GameBuilder builder = new GameBuilder();
-        builder.buildGameFromState(game.getRewindedGameState(ticks), game, ticks);
+        int back = game.getRewindTicks(ticks);
+        builder.buildGameFromState(game.getRewindedGameState(back), game, back);
         return;
     }
 }
@@ -1,17 +1,35 @@
 package dungeonmania.map;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
 
 import dungeonmania.entities.PositionalEntity;
 import dungeonmania.util.Position;
 
+/**
+ * GraphNode -- the entities on one tile, in the order they arrived. Tiles
+ * rarely hold more than a few entities, so they are kept in a small array
+ * that is scanned by identity instead of an ArrayList.
+ */
 public class GraphNode {
+    private static final int INLINE_CAPACITY = 3;
+    private static final MoverCategory[] MOVERS = MoverCategory.values();
+
     private Position position;
-    private List<PositionalEntity> entities = new ArrayList<>();
+    private PositionalEntity[] entities = new PositionalEntity[INLINE_CAPACITY];
+    private int size = 0;
+    private List<PositionalEntity> view = null;
 
     private int weight = 1;
 
+    // per MoverCategory bit: some entity here always blocks it / has to be asked
+    private int blockedMask = 0;
+    private int conditionalMask = 0;
+    private boolean masksValid = false;
+
     public GraphNode(PositionalEntity entity, int weight) {
         this(entity, entity.getPosition(), weight);
     }
@@ -22,41 +40,146 @@ public class GraphNode {
 
     public GraphNode(PositionalEntity entity, Position p, int weight) {
         this.position = p;
-        this.entities.add(entity);
+        this.entities[size++] = entity;
         this.weight = weight;
     }
 
     public boolean canMoveOnto(GameMap map, PositionalEntity entity) {
-        return entities.size() == 0 || entities.stream().allMatch(e -> e.canMoveOnto(map, entity));
+        MoverCategory mover = MoverCategory.of(entity);
+        if (mover != null) {
+            if (!masksValid) computeMasks();
+            if ((blockedMask & mover.bit()) != 0) return false;
+            if ((conditionalMask & mover.bit()) == 0) return true;
+        }
+        for (int i = 0; i < size; i++) {
+            if (!entities[i].canMoveOnto(map, entity)) return false;
+        }
+        return true;
+    }
+
+    private void computeMasks() {
+        blockedMask = 0;
+        conditionalMask = 0;
+        for (int i = 0; i < size; i++) {
+            for (MoverCategory mover : MOVERS) {
+                switch (entities[i].getPassability(mover)) {
+                    case BLOCKED:
+                        blockedMask |= mover.bit();
+                        break;
+                    case CONDITIONAL:
+                        conditionalMask |= mover.bit();
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        masksValid = true;
+    }
+
+    /**
+     * @return true if whether mover may step here depends on more than its
+     * category, e.g. on the keys it holds
+     */
+    boolean asksEntities(MoverCategory mover) {
+        if (mover == null) return true;
+        if (!masksValid) computeMasks();
+        return (blockedMask & mover.bit()) == 0 && (conditionalMask & mover.bit()) != 0;
+    }
+
+    /**
+     * Drop the cached passability, for when an entity here changes state
+     */
+    public void invalidate() {
+        masksValid = false;
     }
 
     public int getWeight() {
         return weight;
     }
 
+    private int indexOf(PositionalEntity entity) {
+        for (int i = 0; i < size; i++) {
+            if (entities[i] == entity) return i;
+        }
+        return -1;
+    }
+
+    public boolean contains(PositionalEntity entity) {
+        return indexOf(entity) >= 0;
+    }
+
     public void addEntity(PositionalEntity entity) {
-        if (!this.entities.contains(entity))
-            this.entities.add(entity);
+        if (contains(entity)) return;
+        if (size == entities.length) entities = Arrays.copyOf(entities, size * 2);
+        entities[size++] = entity;
+        masksValid = false;
     }
 
     public void removeEntity(PositionalEntity entity) {
-        entities.remove(entity);
+        int i = indexOf(entity);
+        if (i < 0) return;
+        System.arraycopy(entities, i + 1, entities, i, size - i - 1);
+        entities[--size] = null;
+        masksValid = false;
     }
 
     public int size() {
-        return entities.size();
+        return size;
+    }
+
+    public PositionalEntity get(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException(index);
+        return entities[index];
+    }
+
+    public void forEach(Consumer<PositionalEntity> action) {
+        for (int i = 0; i < size; i++) action.accept(entities[i]);
+    }
+
+    /**
+     * @return copy of the entities here, for callers that change the tile
+     * while going through them
+     */
+    public PositionalEntity[] toArray() {
+        return Arrays.copyOf(entities, size);
     }
 
     public void mergeNode(GraphNode node) {
-        List<PositionalEntity> es = node.entities;
-        es.forEach(this::addEntity);
+        for (int i = 0; i < node.size; i++) addEntity(node.entities[i]);
     }
 
+    /**
+     * @return read-only live view of the entities here
+     */
     public List<PositionalEntity> getEntities() {
-        return entities;
+        if (view == null) view = new EntityView();
+        return view;
     }
 
     public Position getPosition() {
         return position;
     }
+
+    private class EntityView extends AbstractList<PositionalEntity> implements RandomAccess {
+        @Override
+        public PositionalEntity get(int index) {
+            return GraphNode.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            return (o instanceof PositionalEntity) ? GraphNode.this.indexOf((PositionalEntity) o) : -1;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return indexOf(o) >= 0;
+        }
+    }
 }
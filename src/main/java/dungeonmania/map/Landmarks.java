@@ -0,0 +1,197 @@
+package dungeonmania.map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import dungeonmania.entities.StandardPortal;
+import dungeonmania.util.Position;
+
+/**
+ * Landmarks -- distances from a few landmark tiles (the corners of the map and
+ * the portals) to every tile, for a lower bound on the cost of a path from v
+ * to t by the triangle inequality: d(L, t) <= d(L, v) + d(v, t).
+ *
+ * The distances are taken over an optimistic version of the map where only
+ * walls block, every step costs 1 and a portal leads to the tiles around the
+ * other end for free. Doors, boulders, switch doors and swamps can only make
+ * the real paths longer, so the bound holds however they change; a wall
+ * going away can make them shorter, and the map drops the table when that
+ * happens.
+ *
+ * Outside the bounding box of the occupied tiles the map is empty, so only
+ * the box and a free ring around it are stored: a path leaving the ring is
+ * never shorter than one following it.
+ */
+public class Landmarks {
+    // larger maps go without, the tables would cost too much memory
+    public static final int MAX_TILES = 1 << 20;
+    public static final int MAX_LANDMARKS = 8;
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final int minX;
+    private final int minY;
+    private final int width;
+    private final int height;
+    private final List<int[]> dists = new ArrayList<>();
+
+    private Landmarks(int minX, int minY, int width, int height) {
+        this.minX = minX;
+        this.minY = minY;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * @return the landmark distances for the map as it is now, or null if the
+     * map is empty or too large
+     */
+    static Landmarks build(GameMap map, TileGrid tiles) {
+        if (tiles.size() == 0) return null;
+        int[] bounds = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+        tiles.forEach(p -> {
+            bounds[0] = Math.min(bounds[0], Position.unpackX(p));
+            bounds[1] = Math.min(bounds[1], Position.unpackY(p));
+            bounds[2] = Math.max(bounds[2], Position.unpackX(p));
+            bounds[3] = Math.max(bounds[3], Position.unpackY(p));
+        });
+        long width = (long) bounds[2] - bounds[0] + 3;
+        long height = (long) bounds[3] - bounds[1] + 3;
+        if (width * height > MAX_TILES) return null;
+
+        Landmarks res = new Landmarks(bounds[0] - 1, bounds[1] - 1, (int) width, (int) height);
+        List<StandardPortal> portals = map.getEntities(StandardPortal.class);
+        List<Position> landmarks = new ArrayList<>();
+        landmarks.add(Position.of(res.minX, res.minY));
+        landmarks.add(Position.of(res.minX + res.width - 1, res.minY + res.height - 1));
+        landmarks.add(Position.of(res.minX + res.width - 1, res.minY));
+        landmarks.add(Position.of(res.minX, res.minY + res.height - 1));
+        for (StandardPortal portal : portals) {
+            if (landmarks.size() == MAX_LANDMARKS) break;
+            landmarks.add(portal.getPosition());
+        }
+        for (Position landmark : landmarks) res.dists.add(res.distancesFrom(map, landmark, portals));
+        return res;
+    }
+
+    private int index(int x, int y) {
+        if (x < minX || y < minY || x >= minX + width || y >= minY + height) return -1;
+        return (y - minY) * width + (x - minX);
+    }
+
+    /**
+     * Breadth first search from the landmark, with portals as zero cost edges
+     * (taken by putting their landing tiles at the front of the queue)
+     */
+    private int[] distancesFrom(GameMap map, Position landmark, List<StandardPortal> portals) {
+        int[] dist = new int[width * height];
+        Arrays.fill(dist, UNREACHABLE);
+        int[] portalAt = new int[width * height];
+        Arrays.fill(portalAt, -1);
+        for (int i = 0; i < portals.size(); i++) {
+            int at = index(portals.get(i).getPosition().getX(), portals.get(i).getPosition().getY());
+            if (at >= 0 && portals.get(i).getPairPosition() != null) portalAt[at] = i;
+        }
+
+        IntDeque q = new IntDeque(width * height);
+        int start = index(landmark.getX(), landmark.getY());
+        dist[start] = 0;
+        q.addLast(start);
+        while (!q.isEmpty()) {
+            int curr = q.removeFirst();
+            int x = minX + curr % width;
+            int y = minY + curr / width;
+            if (portalAt[curr] >= 0) {
+                Position pair = portals.get(portalAt[curr]).getPairPosition();
+                for (Position p : pair.getAdjacentPositions()) {
+                    int next = index(p.getX(), p.getY());
+                    if (next < 0 || dist[next] <= dist[curr] || map.isWall(p.getX(), p.getY())) continue;
+                    dist[next] = dist[curr];
+                    q.addFirst(next);
+                }
+            }
+            for (int i = 0; i < Position.CARDINAL_COUNT; i++) {
+                long p = Position.cardinalPacked(Position.pack(x, y), i);
+                int next = index(Position.unpackX(p), Position.unpackY(p));
+                if (next < 0 || dist[next] <= dist[curr] + 1) continue;
+                if (map.isWall(Position.unpackX(p), Position.unpackY(p))) continue;
+                dist[next] = dist[curr] + 1;
+                q.addLast(next);
+            }
+        }
+        return dist;
+    }
+
+    public int getLandmarkCount() {
+        return dists.size();
+    }
+
+    /**
+     * Distances from every landmark to t, to pass to lowerBound
+     */
+    int[] distancesTo(Position t) {
+        int at = index(t.getX(), t.getY());
+        int[] res = new int[dists.size()];
+        for (int i = 0; i < res.length; i++) res[i] = (at < 0) ? UNREACHABLE : dists.get(i)[at];
+        return res;
+    }
+
+    /**
+     * @param toTarget distancesTo the target
+     * @return a lower bound on the cost of the cheapest path from v to the
+     * target
+     */
+    int lowerBound(Position v, int[] toTarget) {
+        int at = index(v.getX(), v.getY());
+        if (at < 0) return 0;
+        int best = 0;
+        for (int i = 0; i < toTarget.length; i++) {
+            int fromLandmark = dists.get(i)[at];
+            if (fromLandmark == UNREACHABLE || toTarget[i] == UNREACHABLE) continue;
+            best = Math.max(best, toTarget[i] - fromLandmark);
+        }
+        return best;
+    }
+
+    // queue of ints that can also be pushed at the front, growing as needed
+    private static final class IntDeque {
+        private int[] items;
+        private int head = 0;
+        private int size = 0;
+
+        private IntDeque(int capacity) {
+            items = new int[Math.max(capacity, 16)];
+        }
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void addFirst(int item) {
+            if (size == items.length) grow();
+            head = (head - 1 + items.length) % items.length;
+            items[head] = item;
+            size++;
+        }
+
+        private void addLast(int item) {
+            if (size == items.length) grow();
+            items[(head + size) % items.length] = item;
+            size++;
+        }
+
+        private int removeFirst() {
+            int item = items[head];
+            head = (head + 1) % items.length;
+            size--;
+            return item;
+        }
+
+        private void grow() {
+            int[] grown = new int[items.length * 2];
+            for (int i = 0; i < size; i++) grown[i] = items[(head + i) % items.length];
+            items = grown;
+            head = 0;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package dungeonmania.map;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import dungeonmania.entities.PositionalEntity;
+import dungeonmania.util.Position;
+
+/**
+ * MapChanges -- what changed on a GameMap since it was last cleared: the tiles
+ * whose contents or state changed, the entities that were added, moved or
+ * changed state, and the ids of the entities that left the map. Game clears
+ * it at the start of every tick, so after a tick it holds that tick's changes.
+ */
+public class MapChanges {
+    private Set<Position> tiles = new LinkedHashSet<>();
+    private Map<String, PositionalEntity> changed = new LinkedHashMap<>();
+    private Set<String> removed = new LinkedHashSet<>();
+
+    void tileChanged(Position p) {
+        tiles.add(Position.of(p.getX(), p.getY()));
+    }
+
+    void entityChanged(PositionalEntity entity) {
+        tileChanged(entity.getPosition());
+        changed.put(entity.getId(), entity);
+        removed.remove(entity.getId());
+    }
+
+    void entityRemoved(PositionalEntity entity) {
+        tileChanged(entity.getPosition());
+        changed.remove(entity.getId());
+        removed.add(entity.getId());
+    }
+
+    public Set<Position> getTiles() {
+        return Collections.unmodifiableSet(tiles);
+    }
+
+    /**
+     * @return entities added, moved or changed state, still on the map
+     */
+    public Set<PositionalEntity> getChangedEntities() {
+        return new LinkedHashSet<>(changed.values());
+    }
+
+    public Set<String> getRemovedIds() {
+        return Collections.unmodifiableSet(removed);
+    }
+
+    public boolean isTileChanged(Position p) {
+        return tiles.contains(p);
+    }
+
+    public boolean isEmpty() {
+        return tiles.isEmpty();
+    }
+
+    public void clear() {
+        tiles.clear();
+        changed.clear();
+        removed.clear();
+    }
+}
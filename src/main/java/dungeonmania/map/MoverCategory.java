@@ -0,0 +1,32 @@
+package dungeonmania.map;
+
+import dungeonmania.entities.Boulder;
+import dungeonmania.entities.Player;
+import dungeonmania.entities.PositionalEntity;
+import dungeonmania.entities.enemies.Mercenary;
+import dungeonmania.entities.enemies.Spider;
+import dungeonmania.entities.enemies.ZombieToast;
+
+/**
+ * MoverCategory -- the kinds of entity that move around the map, each with a
+ * bit in the passability masks cached on a GraphNode
+ */
+public enum MoverCategory {
+    PLAYER, MERCENARY, SPIDER, ZOMBIE, BOULDER;
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * @return the category of entity, or null if it is not one of the movers
+     */
+    public static MoverCategory of(PositionalEntity entity) {
+        if (entity instanceof Player) return PLAYER;
+        if (entity instanceof Mercenary) return MERCENARY;
+        if (entity instanceof Spider) return SPIDER;
+        if (entity instanceof ZombieToast) return ZOMBIE;
+        if (entity instanceof Boulder) return BOULDER;
+        return null;
+    }
+}
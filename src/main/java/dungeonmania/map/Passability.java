@@ -0,0 +1,11 @@
+package dungeonmania.map;
+
+/**
+ * Passability -- whether an entity lets a category of mover onto its tile.
+ * CONDITIONAL means it depends on more than the entity's own state (the
+ * mover's inventory, the tiles around a portal, ...) and canMoveOnto has to
+ * be asked.
+ */
+public enum Passability {
+    OPEN, BLOCKED, CONDITIONAL
+}
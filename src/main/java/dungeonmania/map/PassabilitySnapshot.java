@@ -0,0 +1,124 @@
+package dungeonmania.map;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import dungeonmania.entities.PositionalEntity;
+import dungeonmania.entities.StandardPortal;
+import dungeonmania.util.Position;
+
+/**
+ * PassabilitySnapshot -- a copy of how the map looks to one kind of mover at
+ * one moment: which tiles it can step onto, what they cost and where portals
+ * land it. It only changes when its owner refreshes tiles that have changed on
+ * the map, never while searches read it, so searches on other threads can read
+ * it while the map is being moved about.
+ *
+ * Only occupied tiles are kept, an empty tile is open and costs 1.
+ */
+final class PassabilitySnapshot {
+    private static final Tile EMPTY = new Tile(false, true, 1, null, List.of());
+
+    private static final class Tile {
+        private final boolean occupied;
+        private final boolean open;
+        private final int weight;
+        // null unless there is a portal here
+        private final List<Position> landings;
+        // tiles the answers above also depend on, round the other end of a portal
+        private final List<Position> depends;
+
+        private Tile(boolean occupied, boolean open, int weight, List<Position> landings, List<Position> depends) {
+            this.occupied = occupied;
+            this.open = open;
+            this.weight = weight;
+            this.landings = landings;
+            this.depends = depends;
+        }
+    }
+
+    private final Map<Position, Tile> tiles = new HashMap<>();
+
+    /**
+     * Take a snapshot of the map as mover sees it, good for any mover that
+     * every tile answers the same way as it does
+     */
+    PassabilitySnapshot(GameMap map, TileGrid nodes, PositionalEntity mover) {
+        nodes.forEach(packed -> put(map, mover, Position.ofPacked(packed)));
+    }
+
+    /**
+     * Read p from the map again, as mover sees it, for a tile that has changed
+     * since the snapshot was taken. Not to be called while searches read it.
+     */
+    void refresh(GameMap map, TileGrid nodes, PositionalEntity mover, Position p) {
+        Position key = Position.of(p.getX(), p.getY());
+        if (nodes.contains(key)) put(map, mover, key);
+        else tiles.remove(key);
+    }
+
+    private void put(GameMap map, PositionalEntity mover, Position p) {
+        StandardPortal portal = map.getPortal(p);
+        List<Position> landings = null;
+        List<Position> depends = List.of();
+        if (portal != null) {
+            landings = portal.getDestPositions(map, mover);
+            if (landings == null) {
+                landings = List.of();
+            } else {
+                depends = portal.getPairPosition().getAdjacentPositions();
+            }
+        }
+        tiles.put(p, new Tile(true, map.canMoveTo(mover, p), map.getTileWeight(p), landings, depends));
+    }
+
+    /**
+     * @param weighted whether the mover pays the weight of swamp tiles
+     * @param touched gets every tile the answers were read from
+     */
+    TileView view(boolean weighted, Set<Position> touched) {
+        return new TileView() {
+            @Override
+            public boolean contains(Position p) {
+                return tile(p, touched).occupied;
+            }
+
+            @Override
+            public boolean canMoveTo(Position p) {
+                return tile(p, touched).open;
+            }
+
+            @Override
+            public int getStepCost(Position p) {
+                return weighted ? tile(p, touched).weight : 1;
+            }
+
+            @Override
+            public List<Position> getPortalLandings(Position p) {
+                return tile(p, touched).landings;
+            }
+        };
+    }
+
+    /**
+     * @return true if the map still answers for p as it did when the snapshot
+     * was taken, as seen by mover
+     */
+    boolean holds(GameMap map, TileGrid nodes, PositionalEntity mover, Position p) {
+        Tile tile = tiles.getOrDefault(p, EMPTY);
+        if (tile.landings != null || map.getPortal(p) != null) return false;
+        return tile.occupied == nodes.contains(p)
+            && tile.open == map.canMoveTo(mover, p)
+            && tile.weight == map.getTileWeight(p);
+    }
+
+    private Tile tile(Position p, Set<Position> touched) {
+        Position key = Position.of(p.getX(), p.getY());
+        Tile tile = tiles.getOrDefault(key, EMPTY);
+        touched.add(key);
+        touched.addAll(tile.depends);
+        return tile;
+    }
+}
@@ -0,0 +1,134 @@
+package dungeonmania.map;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import dungeonmania.util.Position;
+
+/**
+ * PathBudget -- a limit on the search work GameMap.dijkstraPathFind does in
+ * one tick, in tiles expanded, in time or both, shared by every search in
+ * the tick.
+ *
+ * Each mover keeps the last route it found. A search that runs out of budget
+ * falls back to the next step of that route, so a mover far from the player
+ * follows where the player was while searches near the player still finish.
+ * Without a route to follow the mover heads for the tile searched so far
+ * that is closest to the player by Manhattan distance, and keeps to that
+ * route while its searches run out. If no tile searched is closer than the
+ * mover itself, it stays where it is and its search carries on from where
+ * it stopped next tick.
+ *
+ * The searches run in callback order, so the first big search of a tick can
+ * use up the budget. Every search still gets a few expansions so that the
+ * ones after it keep making progress.
+ */
+public class PathBudget {
+    // expansions every search gets whatever is left of the budget
+    public static final int MIN_EXPANSIONS = 16;
+    // expansions between looks at the clock
+    private static final int CLOCK_INTERVAL = 64;
+
+    private final int expansions;
+    private final long nanos;
+
+    private int tick = -1;
+    private int remaining = 0;
+    private long deadline = 0;
+    private int spentBySearch = 0;
+    private boolean outOfTime = false;
+    // by mover id
+    private Map<String, Pursuit> pursuits = new HashMap<>();
+
+    private static final class Pursuit {
+        // cut short, carried on while the mover stays put
+        private DijkstraSearch search = null;
+        private List<Position> route = List.of();
+        // index of the next step on route
+        private int next = 0;
+
+        private Position follow(Position src, TileView view) {
+            if (next >= route.size()) return null;
+            Position from = (next == 0) ? null : route.get(next - 1);
+            if (from != null && !from.equals(src)) return null;
+            Position step = route.get(next);
+            if (!view.canMoveTo(step)) return null;
+            next++;
+            return step;
+        }
+    }
+
+    /**
+     * @param expansions tiles a tick's searches may expand, 0 for no limit
+     * @param nanos time a tick's searches may take, 0 for no limit
+     */
+    public PathBudget(int expansions, long nanos) {
+        this.expansions = expansions;
+        this.nanos = nanos;
+    }
+
+    Position firstStep(TileView view, String id, int currentTick,
+            Position src, Position dest, boolean weighted, int maxDist) {
+        if (tick != currentTick) {
+            tick = currentTick;
+            remaining = expansions;
+            deadline = System.nanoTime() + nanos;
+            outOfTime = false;
+        }
+        spentBySearch = 0;
+
+        Pursuit pursuit = pursuits.computeIfAbsent(id, k -> new Pursuit());
+        DijkstraSearch search = pursuit.search;
+        if (search == null || !search.resumableFor(src, weighted)) search = new DijkstraSearch(src, weighted);
+        pursuit.search = null;
+        if (search.run(view, dest, maxDist, this)) {
+            pursuit.route = search.path(dest);
+            pursuit.next = 0;
+            Position step = pursuit.follow(src, view);
+            return (step != null) ? step : search.firstStep(dest);
+        }
+        Position step = pursuit.follow(src, view);
+        if (step != null) return step;
+        // make for the tile searched so far that looks closest to dest
+        Position closest = search.closestTo(dest);
+        if (distance(closest, dest) < distance(src, dest)) {
+            pursuit.route = search.path(closest);
+            pursuit.next = 0;
+            step = pursuit.follow(src, view);
+            if (step != null) return step;
+        }
+        pursuit.search = search;
+        return src;
+    }
+
+    private static int distance(Position a, Position b) {
+        return Math.abs(a.getX() - b.getX()) + Math.abs(a.getY() - b.getY());
+    }
+
+    /**
+     * Take one expansion from the budget
+     * @return false if there is none left
+     */
+    boolean spend() {
+        spentBySearch++;
+        if (expansions > 0) remaining--;
+        if (spentBySearch <= MIN_EXPANSIONS) return true;
+        if (expansions > 0 && remaining < 0) return false;
+        if (nanos > 0 && !outOfTime && spentBySearch % CLOCK_INTERVAL == 0)
+            outOfTime = System.nanoTime() > deadline;
+        return !outOfTime;
+    }
+
+    /**
+     * Drop the searches cut short, for when the terrain they were searching
+     * has changed
+     */
+    void terrainChanged() {
+        pursuits.values().forEach(pursuit -> pursuit.search = null);
+    }
+
+    void moverRemoved(String id) {
+        pursuits.remove(id);
+    }
+}
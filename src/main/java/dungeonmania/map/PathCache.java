@@ -0,0 +1,122 @@
+package dungeonmania.map;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import dungeonmania.util.Position;
+
+/**
+ * PathCache -- steps dijkstraPathFind has found, by source, destination and
+ * kind of mover, least recently used first out. A search stores a step for
+ * every tile along the path it found, so a mover walking that path towards
+ * the same destination is answered from the cache all the way.
+ *
+ * A step is tagged with the GameMap topology version it was found under,
+ * which only moves on when something other than the player or an enemy
+ * changes passability, and is a miss once that has moved on. Steps are
+ * found around the movers where they were at the time, so the caller checks
+ * a step can still be taken. Finding no path at all is more often down to
+ * movers in the way, so that is tagged with the version counting their moves
+ * as well.
+ */
+public class PathCache {
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final Map<Key, Entry> entries;
+    private long hits = 0;
+    private long misses = 0;
+
+    private static final class Key {
+        private final long src;
+        private final long dest;
+        // MoverCategory ordinal and whether tile weights are paid
+        private final int kind;
+
+        private Key(Position src, Position dest, MoverCategory mover, boolean weighted) {
+            this.src = src.pack();
+            this.dest = dest.pack();
+            this.kind = (mover.ordinal() << 1) | (weighted ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key) obj;
+            return src == other.src && dest == other.dest && kind == other.kind;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(src * 31 + dest) * 31 + kind;
+        }
+    }
+
+    private static final class Entry {
+        private final Position step;
+        private final int version;
+
+        private Entry(Position step, int version) {
+            this.step = step;
+            this.version = version;
+        }
+    }
+
+    public PathCache(int capacity) {
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @return the step cached for the query, src if no path was found, or
+     * null on a miss
+     */
+    Position get(Position src, Position dest, MoverCategory mover, boolean weighted,
+            int topologyVersion, int tileVersion) {
+        Key key = new Key(src, dest, mover, weighted);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            boolean none = entry.step.equals(src);
+            if (entry.version == (none ? tileVersion : topologyVersion)) {
+                hits++;
+                return entry.step;
+            }
+            entries.remove(key);
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Store the steps along path, first step first, or that there is no path
+     * if it is empty
+     */
+    void put(Position src, Position dest, MoverCategory mover, boolean weighted, List<Position> path,
+            int topologyVersion, int tileVersion) {
+        if (path.isEmpty()) {
+            entries.put(new Key(src, dest, mover, weighted), new Entry(src, tileVersion));
+            return;
+        }
+        Position from = src;
+        for (Position step : path) {
+            entries.put(new Key(from, dest, mover, weighted), new Entry(step, topologyVersion));
+            from = step;
+        }
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,128 @@
+package dungeonmania.map;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import dungeonmania.entities.PositionalEntity;
+import dungeonmania.entities.StandardPortal;
+import dungeonmania.util.Position;
+
+/**
+ * PortalEdges -- where each portal can put a mover down: the free tiles next
+ * to it that a search lands on, and the free tiles cardinally next to it that
+ * a teleport picks from (a portal needs all four of those to be entered).
+ *
+ * The answers are kept for each MoverCategory and dropped when one of the
+ * eight tiles round the portal changes. They are only kept while none of
+ * those tiles has to ask its entities (a door wanting a key, say), since
+ * then the answer depends on the mover and not just on its category.
+ */
+public class PortalEdges {
+    private static final int CATEGORIES = MoverCategory.values().length;
+
+    private final GameMap map;
+    private final TileGrid nodes;
+    private final Map<StandardPortal, Edges> edges = new IdentityHashMap<>();
+    // tile -> the portals it is next to
+    private final Map<Position, List<Edges>> watchers = new HashMap<>();
+
+    private static final class Edges {
+        private final Position position;
+        // by MoverCategory, null until worked out
+        private final List<?>[] landings = new List<?>[CATEGORIES];
+        private final List<?>[] exits = new List<?>[CATEGORIES];
+
+        private Edges(Position position) {
+            this.position = position;
+        }
+
+        private void clear() {
+            for (int i = 0; i < CATEGORIES; i++) {
+                landings[i] = null;
+                exits[i] = null;
+            }
+        }
+    }
+
+    PortalEdges(GameMap map, TileGrid nodes) {
+        this.map = map;
+        this.nodes = nodes;
+    }
+
+    /**
+     * Work out the edges of every portal up front, for when the portals have
+     * just been paired
+     */
+    void build(List<StandardPortal> portals) {
+        for (StandardPortal portal : portals) edges(portal);
+    }
+
+    /**
+     * @return tiles round portal that entity may land on, in the order of
+     * Position.getAdjacentPositions (unmodifiable)
+     */
+    public List<Position> landings(StandardPortal portal, PositionalEntity entity) {
+        Edges e = edges(portal);
+        return lookup(e.landings, e.position.getAdjacentPositions(), entity);
+    }
+
+    /**
+     * @return tiles cardinally next to portal that entity may step out onto,
+     * in the order of Position.getCardinallyAdjacentPositions (unmodifiable)
+     */
+    public List<Position> exits(StandardPortal portal, PositionalEntity entity) {
+        Edges e = edges(portal);
+        return lookup(e.exits, e.position.getCardinallyAdjacentPositions(), entity);
+    }
+
+    /**
+     * Drop the answers of the portals next to p
+     */
+    void tileChanged(Position p) {
+        if (watchers.isEmpty()) return;
+        List<Edges> watching = watchers.get(Position.of(p.getX(), p.getY()));
+        if (watching != null) watching.forEach(Edges::clear);
+    }
+
+    void portalRemoved(StandardPortal portal) {
+        Edges e = edges.remove(portal);
+        if (e == null) return;
+        for (Position p : e.position.getAdjacentPositions()) {
+            List<Edges> watching = watchers.get(p);
+            watching.remove(e);
+            if (watching.isEmpty()) watchers.remove(p);
+        }
+    }
+
+    private Edges edges(StandardPortal portal) {
+        Edges e = edges.get(portal);
+        if (e == null) {
+            // portals never move, so the tiles round one are fixed
+            e = new Edges(Position.of(portal.getPosition().getX(), portal.getPosition().getY()));
+            edges.put(portal, e);
+            for (Position p : e.position.getAdjacentPositions()) {
+                watchers.computeIfAbsent(p, k -> new ArrayList<>(1)).add(e);
+            }
+        }
+        return e;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Position> lookup(List<?>[] cache, List<Position> tiles, PositionalEntity entity) {
+        MoverCategory mover = MoverCategory.of(entity);
+        if (mover != null && cache[mover.ordinal()] != null) return (List<Position>) cache[mover.ordinal()];
+        List<Position> res = new ArrayList<>(tiles.size());
+        boolean keep = mover != null;
+        for (Position p : tiles) {
+            if (map.canMoveTo(entity, p)) res.add(p);
+            GraphNode node = nodes.get(p);
+            if (node != null && node.asksEntities(mover)) keep = false;
+        }
+        res = List.copyOf(res);
+        if (keep) cache[mover.ordinal()] = res;
+        return res;
+    }
+}
@@ -0,0 +1,98 @@
+package dungeonmania.map;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.json.JSONObject;
+
+import dungeonmania.util.Position;
+
+/**
+ * RegionPager -- holds the dungeon JSON of passive entities (walls, items,
+ * doors) per square region until a mover comes within loadRadius regions of
+ * it. Entities that goals count or that register callbacks when the map is
+ * initialised are never paged, so they are always on the map. The regions
+ * round spawners and portals are loaded from the start, as what they spawn
+ * or let out lands next to them wherever the movers are.
+ */
+public class RegionPager {
+    public static final int DEFAULT_REGION_SIZE = 16;
+    public static final int DEFAULT_LOAD_RADIUS = 1;
+
+    private static final Set<String> PAGEABLE_TYPES = Set.of(
+        "wall", "wood", "arrow", "sword", "key", "door",
+        "invisibility_potion", "invincibility_potion", "time_turner");
+
+    private final int regionSize;
+    private final int loadRadius;
+    private Map<Long, List<JSONObject>> unloaded = new HashMap<>();
+    private Set<Long> loaded = new HashSet<>();
+    private int unloadedCount = 0;
+
+    public RegionPager(int regionSize, int loadRadius) {
+        this.regionSize = Math.max(1, regionSize);
+        this.loadRadius = Math.max(0, loadRadius);
+    }
+
+    public static boolean isPageable(JSONObject jsonEntity) {
+        return PAGEABLE_TYPES.contains(jsonEntity.getString("type"));
+    }
+
+    private long regionOf(int x, int y) {
+        return Position.pack(Math.floorDiv(x, regionSize), Math.floorDiv(y, regionSize));
+    }
+
+    /**
+     * Keep jsonEntity back until its region is loaded
+     * @return false if its region is already loaded, the caller should add it
+     */
+    public boolean defer(JSONObject jsonEntity) {
+        long region = regionOf(jsonEntity.getInt("x"), jsonEntity.getInt("y"));
+        if (loaded.contains(region)) return false;
+        unloaded.computeIfAbsent(region, r -> new ArrayList<>()).add(jsonEntity);
+        unloadedCount++;
+        return true;
+    }
+
+    /**
+     * Mark every region within loadRadius regions of p as loaded
+     * @return JSON of the entities in those regions that were not loaded yet
+     */
+    public List<JSONObject> load(Position p) {
+        List<JSONObject> res = new ArrayList<>();
+        long centre = regionOf(p.getX(), p.getY());
+        int rx = Position.unpackX(centre);
+        int ry = Position.unpackY(centre);
+        for (int x = rx - loadRadius; x <= rx + loadRadius; x++) {
+            for (int y = ry - loadRadius; y <= ry + loadRadius; y++) {
+                long region = Position.pack(x, y);
+                if (!loaded.add(region)) continue;
+                List<JSONObject> entities = unloaded.remove(region);
+                if (entities == null) continue;
+                res.addAll(entities);
+                unloadedCount -= entities.size();
+            }
+        }
+        return res;
+    }
+
+    public List<JSONObject> getUnloaded() {
+        List<JSONObject> res = new ArrayList<>(unloadedCount);
+        unloaded.values().forEach(res::addAll);
+        return res;
+    }
+
+    public int getUnloadedCount() {
+        return unloadedCount;
+    }
+
+    public void clear() {
+        unloaded.clear();
+        loaded.clear();
+        unloadedCount = 0;
+    }
+}
@@ -0,0 +1,21 @@
+package dungeonmania.map;
+
+/**
+ * SearchAlgorithm -- how GameMap.pathFind looks for a path. All but
+ * HIERARCHICAL pick the same one among equally short paths, see
+ * DijkstraSearch.
+ */
+public enum SearchAlgorithm {
+    // uninformed, expands outwards evenly from the source
+    DIJKSTRA,
+    // DIJKSTRA over a bucket queue on reused arrays, see BucketDijkstra
+    BUCKET,
+    // guided towards the destination by a portal-aware Manhattan distance
+    A_STAR,
+    // over clusters of the map, see ClusterGraph, falling back to A_STAR
+    // for anything it cannot plan for; the path may be slightly longer
+    HIERARCHICAL,
+    // kept between ticks for each mercenary and repaired as the map and the
+    // player move, see DStarLite; A_STAR for allies next to the player
+    INCREMENTAL
+}
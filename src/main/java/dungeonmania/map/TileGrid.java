@@ -0,0 +1,342 @@
+package dungeonmania.map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+import dungeonmania.util.Position;
+
+/**
+ * TileGrid -- sparse storage of GraphNodes in fixed-size square chunks.
+ * Chunks are found through an open-addressing table keyed by the packed chunk
+ * coordinates, and a tile inside a chunk is a plain array index, so a probe
+ * never hashes a Position or allocates.
+ *
+ * Walls are kept apart from the GraphNodes as one bit per tile (the static
+ * terrain layer), since a big maze is mostly walls and they never move or
+ * change state. A tile is occupied if it has a node, a wall or both.
+ *
+ * Iteration follows the order the map used to have as a HashMap keyed by
+ * Position (bucket of the position hash, then insertion order), since the
+ * order of entities in responses and of callback registration depends on it.
+ */
+public class TileGrid {
+    public static final int CHUNK_BITS = 5;
+    public static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int ORDER_INITIAL_CAPACITY = 16;
+
+    static final class Chunk {
+        private final int cx;
+        private final int cy;
+        private final GraphNode[] nodes = new GraphNode[CHUNK_SIZE * CHUNK_SIZE];
+        // when each tile became occupied, see the class comment
+        private final long[] sequences = new long[CHUNK_SIZE * CHUNK_SIZE];
+        // terrain walls, one bit per tile, allocated with the first wall
+        private long[] walls = null;
+        private int count = 0;
+
+        private Chunk(int cx, int cy) {
+            this.cx = cx;
+            this.cy = cy;
+        }
+
+        int getMinX() {
+            return cx << CHUNK_BITS;
+        }
+
+        int getMinY() {
+            return cy << CHUNK_BITS;
+        }
+
+        int getCount() {
+            return count;
+        }
+
+        GraphNode get(int index) {
+            return nodes[index];
+        }
+
+        boolean hasWall(int index) {
+            return walls != null && (walls[index >> 6] & (1L << index)) != 0;
+        }
+
+        boolean isOccupied(int index) {
+            return nodes[index] != null || hasWall(index);
+        }
+    }
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private Chunk[] table = new Chunk[INITIAL_CAPACITY];
+    private List<Chunk> chunks = new ArrayList<>();
+    private Chunk lastChunk = null;
+    private int size = 0;
+    private int wallCount = 0;
+
+    // bookkeeping for the iteration order, see class comment
+    private int orderCapacity = ORDER_INITIAL_CAPACITY;
+    private long nextSequence = 0;
+    private long[] ordered = null;
+
+    public static long chunkKey(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+
+    private static int slot(int x, int y) {
+        return ((y & CHUNK_MASK) << CHUNK_BITS) | (x & CHUNK_MASK);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    Chunk findChunk(int cx, int cy) {
+        Chunk last = lastChunk;
+        if (last != null && last.cx == cx && last.cy == cy) return last;
+        long key = chunkKey(cx, cy);
+        int mask = table.length - 1;
+        for (int i = hash(key) & mask; table[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                lastChunk = table[i];
+                return table[i];
+            }
+        }
+        return null;
+    }
+
+    private Chunk getOrCreateChunk(int cx, int cy) {
+        Chunk chunk = findChunk(cx, cy);
+        if (chunk != null) return chunk;
+        if ((chunks.size() + 1) * 2 > table.length) grow();
+        chunk = new Chunk(cx, cy);
+        insert(chunkKey(cx, cy), chunk);
+        chunks.add(chunk);
+        lastChunk = chunk;
+        return chunk;
+    }
+
+    private void insert(long key, Chunk chunk) {
+        int mask = table.length - 1;
+        int i = hash(key) & mask;
+        while (table[i] != null) i = (i + 1) & mask;
+        keys[i] = key;
+        table[i] = chunk;
+    }
+
+    private void grow() {
+        keys = new long[table.length * 2];
+        table = new Chunk[keys.length];
+        chunks.forEach(c -> insert(chunkKey(c.cx, c.cy), c));
+    }
+
+    public GraphNode get(int x, int y) {
+        Chunk chunk = findChunk(x >> CHUNK_BITS, y >> CHUNK_BITS);
+        return (chunk != null) ? chunk.nodes[slot(x, y)] : null;
+    }
+
+    public GraphNode get(Position p) {
+        return get(p.getX(), p.getY());
+    }
+
+    /**
+     * @return true if the tile has a node or a wall
+     */
+    public boolean contains(Position p) {
+        return contains(p.getX(), p.getY());
+    }
+
+    public boolean contains(int x, int y) {
+        Chunk chunk = findChunk(x >> CHUNK_BITS, y >> CHUNK_BITS);
+        return chunk != null && chunk.isOccupied(slot(x, y));
+    }
+
+    public boolean hasWall(int x, int y) {
+        Chunk chunk = findChunk(x >> CHUNK_BITS, y >> CHUNK_BITS);
+        return chunk != null && chunk.hasWall(slot(x, y));
+    }
+
+    public boolean hasWall(Position p) {
+        return hasWall(p.getX(), p.getY());
+    }
+
+    public void put(Position p, GraphNode node) {
+        Chunk chunk = getOrCreateChunk(p.getX() >> CHUNK_BITS, p.getY() >> CHUNK_BITS);
+        int i = slot(p.getX(), p.getY());
+        if (!chunk.isOccupied(i)) occupy(chunk, i);
+        chunk.nodes[i] = node;
+    }
+
+    public void remove(Position p) {
+        Chunk chunk = findChunk(p.getX() >> CHUNK_BITS, p.getY() >> CHUNK_BITS);
+        if (chunk == null) return;
+        int i = slot(p.getX(), p.getY());
+        if (chunk.nodes[i] != null) {
+            chunk.nodes[i] = null;
+            if (!chunk.hasWall(i)) vacate(chunk);
+        }
+    }
+
+    /**
+     * @return false if there was already a wall on the tile
+     */
+    public boolean addWall(Position p) {
+        Chunk chunk = getOrCreateChunk(p.getX() >> CHUNK_BITS, p.getY() >> CHUNK_BITS);
+        int i = slot(p.getX(), p.getY());
+        if (chunk.hasWall(i)) return false;
+        if (!chunk.isOccupied(i)) occupy(chunk, i);
+        if (chunk.walls == null) chunk.walls = new long[CHUNK_SIZE * CHUNK_SIZE / Long.SIZE];
+        chunk.walls[i >> 6] |= 1L << i;
+        wallCount++;
+        return true;
+    }
+
+    /**
+     * @return false if there was no wall on the tile
+     */
+    public boolean removeWall(Position p) {
+        Chunk chunk = findChunk(p.getX() >> CHUNK_BITS, p.getY() >> CHUNK_BITS);
+        if (chunk == null) return false;
+        int i = slot(p.getX(), p.getY());
+        if (!chunk.hasWall(i)) return false;
+        chunk.walls[i >> 6] &= ~(1L << i);
+        wallCount--;
+        if (chunk.nodes[i] == null) vacate(chunk);
+        return true;
+    }
+
+    private void occupy(Chunk chunk, int i) {
+        chunk.count++;
+        size++;
+        if (size > orderCapacity * 3 / 4) orderCapacity *= 2;
+        chunk.sequences[i] = nextSequence++;
+        ordered = null;
+    }
+
+    private void vacate(Chunk chunk) {
+        chunk.count--;
+        size--;
+        ordered = null;
+    }
+
+    /**
+     * @return number of occupied tiles
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getWallCount() {
+        return wallCount;
+    }
+
+    /**
+     * Visit every occupied tile with minX <= x <= maxX and minY <= y <= maxY,
+     * as a packed position (see Position.pack), in no particular order. Only chunks overlapping the rectangle are looked
+     * at, found either by probing the chunk coordinates it covers or, when that
+     * would be more probes than there are chunks, by walking the chunk list.
+     */
+    public void forEachInRect(int minX, int minY, int maxX, int maxY, LongConsumer action) {
+        if (minX > maxX || minY > maxY || size == 0) return;
+        int cx0 = minX >> CHUNK_BITS;
+        int cx1 = maxX >> CHUNK_BITS;
+        int cy0 = minY >> CHUNK_BITS;
+        int cy1 = maxY >> CHUNK_BITS;
+        if ((long) (cx1 - cx0 + 1) * (cy1 - cy0 + 1) <= chunks.size()) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                for (int cy = cy0; cy <= cy1; cy++) {
+                    Chunk chunk = findChunk(cx, cy);
+                    if (chunk != null) visit(chunk, minX, minY, maxX, maxY, action);
+                }
+            }
+        } else {
+            for (Chunk chunk : chunks) {
+                if (chunk.cx < cx0 || chunk.cx > cx1 || chunk.cy < cy0 || chunk.cy > cy1) continue;
+                visit(chunk, minX, minY, maxX, maxY, action);
+            }
+        }
+    }
+
+    private void visit(Chunk chunk, int minX, int minY, int maxX, int maxY, LongConsumer action) {
+        if (chunk.count == 0) return;
+        int x0 = Math.max(minX, chunk.getMinX());
+        int x1 = Math.min(maxX, chunk.getMinX() + CHUNK_MASK);
+        int y0 = Math.max(minY, chunk.getMinY());
+        int y1 = Math.min(maxY, chunk.getMinY() + CHUNK_MASK);
+        for (int y = y0; y <= y1; y++) {
+            for (int x = x0; x <= x1; x++) {
+                if (chunk.isOccupied(slot(x, y))) action.accept(Position.pack(x, y));
+            }
+        }
+    }
+
+    List<Chunk> getChunks() {
+        return chunks;
+    }
+
+    private int bucket(int x, int y) {
+        // the position hash is 31 * (31 + x) + y, see Position
+        int h = 31 * (31 + x) + y;
+        return (h ^ (h >>> 16)) & (orderCapacity - 1);
+    }
+
+    /**
+     * Sort key of a tile in iteration order, or -1 if the tile is empty
+     */
+    public long orderKey(Position p) {
+        Chunk chunk = findChunk(p.getX() >> CHUNK_BITS, p.getY() >> CHUNK_BITS);
+        int i = slot(p.getX(), p.getY());
+        if (chunk == null || !chunk.isOccupied(i)) return -1;
+        return ((long) bucket(p.getX(), p.getY()) << 40) | chunk.sequences[i];
+    }
+
+    private long[] ordered() {
+        if (ordered == null) {
+            // counting sort by bucket, then by sequence within a bucket (which
+            // holds about one tile given the load factor)
+            int[] start = new int[orderCapacity + 1];
+            forEachOccupied((x, y, seq) -> start[bucket(x, y) + 1]++);
+            for (int b = 0; b < orderCapacity; b++) start[b + 1] += start[b];
+            int[] next = Arrays.copyOf(start, orderCapacity);
+            long[] seqs = new long[size];
+            long[] res = new long[size];
+            forEachOccupied((x, y, seq) -> {
+                int b = bucket(x, y);
+                int i = next[b]++;
+                while (i > start[b] && seqs[i - 1] > seq) {
+                    seqs[i] = seqs[i - 1];
+                    res[i] = res[i - 1];
+                    i--;
+                }
+                seqs[i] = seq;
+                res[i] = Position.pack(x, y);
+            });
+            ordered = res;
+        }
+        return ordered;
+    }
+
+    private interface TileAction {
+        void accept(int x, int y, long sequence);
+    }
+
+    private void forEachOccupied(TileAction action) {
+        for (Chunk chunk : chunks) {
+            if (chunk.count == 0) continue;
+            for (int i = 0; i < chunk.nodes.length; i++) {
+                if (!chunk.isOccupied(i)) continue;
+                action.accept(chunk.getMinX() + (i & CHUNK_MASK), chunk.getMinY() + (i >> CHUNK_BITS), chunk.sequences[i]);
+            }
+        }
+    }
+
+    /**
+     * Visit every occupied tile as a packed position, see the class comment
+     * for the order
+     */
+    public void forEach(LongConsumer action) {
+        for (long p : ordered()) action.accept(p);
+    }
+}
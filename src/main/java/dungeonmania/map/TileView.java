@@ -0,0 +1,27 @@
+package dungeonmania.map;
+
+import java.util.List;
+
+import dungeonmania.util.Position;
+
+/**
+ * TileView -- what DijkstraSearch asks of the map about the tiles, for one
+ * mover. GameMap answers from the live map, PassabilitySnapshot from a copy
+ * that other threads can read.
+ */
+interface TileView {
+    /**
+     * @return true if the tile has a node or a wall
+     */
+    boolean contains(Position p);
+
+    boolean canMoveTo(Position p);
+
+    int getStepCost(Position p);
+
+    /**
+     * @return null if there is no portal on p, else the tiles it lands the
+     * mover on (none if it is not bound)
+     */
+    List<Position> getPortalLandings(Position p);
+}
@@ -9,15 +9,17 @@ import dungeonmania.battles.BattleRound;
 import dungeonmania.entities.PositionalEntity;
 import dungeonmania.entities.Entity;
 import dungeonmania.entities.Interactable;
+import dungeonmania.entities.Wall;
 import dungeonmania.entities.inventory.Inventory;
 import dungeonmania.util.NameConverter;
+import dungeonmania.util.Position;
 
 public class ResponseBuilder {
     public static DungeonResponse getDungeonResponse(Game game) {
         List<EntityResponse> entityResponse = new ArrayList<>();
-        game.getEntities().forEach(e -> {
-            entityResponse.add(ResponseBuilder.getEntityResponse(game, e));
-        });
+        game.getMap().forEachEntity(
+            e -> entityResponse.add(ResponseBuilder.getEntityResponse(game, e)),
+            (x, y) -> entityResponse.add(ResponseBuilder.getTerrainWallResponse(x, y)));
         return new DungeonResponse(
                 game.getId(),
                 game.getName(),
@@ -48,6 +50,15 @@ public class ResponseBuilder {
                 (entity instanceof Interactable) && ((Interactable) entity).isInteractable(game.getPlayer()));
     }
 
+    // same response getEntityResponse gives for a materialised terrain wall
+    public static EntityResponse getTerrainWallResponse(int x, int y) {
+        return new EntityResponse(
+                Wall.terrainId(x, y),
+                "wall",
+                new Position(x, y, PositionalEntity.CHARACTER_LAYER),
+                false);
+    }
+
     public static RoundResponse getRoundResponse(BattleRound round) {
         return new RoundResponse(
                 round.getDeltaSelfHealth(),
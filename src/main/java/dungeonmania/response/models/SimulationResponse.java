@@ -0,0 +1,21 @@
+package dungeonmania.response.models;
+
+import java.util.List;
+
+public final class SimulationResponse {
+    private final DungeonResponse finalState;
+    private final List<TickSample> samples;
+
+    public SimulationResponse(DungeonResponse finalState, List<TickSample> samples) {
+        this.finalState = finalState;
+        this.samples = samples;
+    }
+
+    public final DungeonResponse getFinalState() {
+        return finalState;
+    }
+
+    public final List<TickSample> getSamples() {
+        return samples;
+    }
+}
@@ -0,0 +1,37 @@
+package dungeonmania.response.models;
+
+public final class TickSample {
+    private final int tick;
+    private final double playerHealth;
+    private final int killCount;
+    private final long enemyCount;
+    private final boolean goalsAchieved;
+
+    public TickSample(int tick, double playerHealth, int killCount, long enemyCount, boolean goalsAchieved) {
+        this.tick = tick;
+        this.playerHealth = playerHealth;
+        this.killCount = killCount;
+        this.enemyCount = enemyCount;
+        this.goalsAchieved = goalsAchieved;
+    }
+
+    public final int getTick() {
+        return tick;
+    }
+
+    public final double getPlayerHealth() {
+        return playerHealth;
+    }
+
+    public final int getKillCount() {
+        return killCount;
+    }
+
+    public final long getEnemyCount() {
+        return enemyCount;
+    }
+
+    public final boolean getGoalsAchieved() {
+        return goalsAchieved;
+    }
+}
@@ -0,0 +1,83 @@
+package dungeonmania.util;
+
+import java.util.SplittableRandom;
+
+/**
+ * GameRandom -- the randomness of one game, a separate stream for each thing
+ * that needs it so that, say, a zombie spawning does not change where the
+ * next spider spawns. Every stream comes from the game's seed, so a game
+ * started with the same seed and played the same way plays out the same.
+ *
+ * The streams are SplitMix64, the generator behind SplittableRandom, kept as
+ * plain longs so that their state can be saved with the game and put back.
+ */
+public final class GameRandom {
+    public enum Stream {
+        SPIDER_SPAWN, ZOMBIE_SPAWN, ZOMBIE_MOVEMENT, HYDRA_GROWTH
+    }
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final long seed;
+    // by Stream ordinal
+    private final long[] states;
+
+    public GameRandom(long seed) {
+        this.seed = seed;
+        states = new long[Stream.values().length];
+        for (int i = 0; i < states.length; i++) states[i] = mix(seed + (i + 1) * GOLDEN_GAMMA);
+    }
+
+    /**
+     * For a game whose streams have moved on from seed, as saved
+     */
+    public GameRandom(long seed, long[] states) {
+        this(seed);
+        System.arraycopy(states, 0, this.states, 0, Math.min(states.length, this.states.length));
+    }
+
+    /**
+     * @return a new game's randomness with a seed of its own
+     */
+    public static GameRandom unseeded() {
+        return new GameRandom(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * @return a value in [0, bound)
+     */
+    public int nextInt(Stream stream, int bound) {
+        if (bound <= 0) throw new IllegalArgumentException("bound must be positive");
+        // same as java.util.Random, on the top 31 bits
+        int r = (int) (next(stream) >>> 33);
+        int m = bound - 1;
+        if ((bound & m) == 0) return (int) ((bound * (long) r) >> 31);
+        for (int u = r; u - (r = u % bound) + m < 0; u = (int) (next(stream) >>> 33));
+        return r;
+    }
+
+    /**
+     * @return a value in [0, 1)
+     */
+    public double nextDouble(Stream stream) {
+        return (next(stream) >>> 11) * 0x1.0p-53;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long[] getStates() {
+        return states.clone();
+    }
+
+    private long next(Stream stream) {
+        return mix(states[stream.ordinal()] += GOLDEN_GAMMA);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,8 +1,6 @@
 package dungeonmania.util;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 
 public final class Position {
     public static final int FLOOR_LAYER = 0;
@@ -10,25 +8,105 @@ public final class Position {
     public static final int DOOR_LAYER = 2;
     public static final int CHARACTER_LAYER = 3;
 
+    public static final int ADJACENT_COUNT = 8;
+    public static final int CARDINAL_COUNT = 4;
+
+    // Neighbour offsets, in the same order as getAdjacentPositions and
+    // getCardinallyAdjacentPositions
+    private static final int[] ADJACENT_DX = {-1, 0, 1, 1, 1, 0, -1, -1};
+    private static final int[] ADJACENT_DY = {-1, -1, -1, 0, 1, 1, 1, 0};
+    private static final int[] CARDINAL_DX = {0, 1, 0, -1};
+    private static final int[] CARDINAL_DY = {-1, 0, 1, 0};
+
+    // Direct-mapped cache of layer 0 positions handed out by of(), a collision
+    // simply replaces the old entry
+    private static final int INTERN_BITS = 12;
+    private static final Position[] INTERNED = new Position[1 << INTERN_BITS];
+
     private final int x;
     private final int y;
     private final int layer;
+    // transient so it stays out of the serialised responses
+    private final transient int hash;
 
     public Position(int x, int y, int layer) {
         this.x = x;
         this.y = y;
         this.layer = layer;
+        // same value as Objects.hash(x, y), without boxing
+        this.hash = 31 * (31 + x) + y;
     }
 
     public Position(int x, int y) {
-        this.x = x;
-        this.y = y;
-        this.layer = 0;
+        this(x, y, 0);
+    }
+
+    /**
+     * Layer 0 position at (x, y), shared with other callers asking for the
+     * same tile where possible
+     */
+    public static Position of(int x, int y) {
+        int i = (int) (mix(pack(x, y)) >>> (64 - INTERN_BITS));
+        Position p = INTERNED[i];
+        if (p == null || p.x != x || p.y != y) {
+            p = new Position(x, y);
+            INTERNED[i] = p;
+        }
+        return p;
+    }
+
+    public static Position ofPacked(long packed) {
+        return of(unpackX(packed), unpackY(packed));
+    }
+
+    /**
+     * Pack x and y into a single long, usable as a map key or array entry in
+     * place of a Position (the layer is dropped, as it is for equals)
+     */
+    public static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    public static int unpackX(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    public static int unpackY(long packed) {
+        return (int) packed;
+    }
+
+    public static long translatePacked(long packed, int deltaX, int deltaY) {
+        return pack(unpackX(packed) + deltaX, unpackY(packed) + deltaY);
+    }
+
+    public final long pack() {
+        return pack(x, y);
+    }
+
+    /**
+     * i-th neighbour of a packed position, in getAdjacentPositions order, for
+     * looping over neighbours without building a list
+     */
+    public static long adjacentPacked(long packed, int i) {
+        return translatePacked(packed, ADJACENT_DX[i], ADJACENT_DY[i]);
+    }
+
+    /**
+     * i-th cardinal neighbour of a packed position, in
+     * getCardinallyAdjacentPositions order
+     */
+    public static long cardinalPacked(long packed, int i) {
+        return translatePacked(packed, CARDINAL_DX[i], CARDINAL_DY[i]);
+    }
+
+    private static long mix(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return key ^ (key >>> 29);
     }
 
     @Override
     public final int hashCode() {
-        return Objects.hash(x, y);
+        return hash;
     }
 
     @Override
@@ -61,11 +139,13 @@ public final class Position {
     }
 
     public final Position asLayer(int layer) {
-        return new Position(x, y, layer);
+        if (layer == this.layer) return this;
+        return (layer == 0) ? of(x, y) : new Position(x, y, layer);
     }
 
     public static final Position translateBy(Position old, int deltaX, int deltaY) {
-        return translateBy(old, new Position(deltaX, deltaY));
+        if (old.layer == 0) return of(old.x + deltaX, old.y + deltaY);
+        return new Position(old.x + deltaX, old.y + deltaY, old.layer);
     }
 
     public static final Position translateBy(Position old, Direction direction) {
@@ -73,6 +153,7 @@ public final class Position {
     }
 
     public static final Position translateBy(Position old, Position delta) {
+        if (old.layer + delta.layer == 0) return of(old.x + delta.x, old.y + delta.y);
         return new Position(old.x + delta.x, old.y + delta.y, old.layer + delta.layer);
     }
 
@@ -85,7 +166,7 @@ public final class Position {
      */
 
     public static final Position calculatePositionBetween(Position a, Position b) {
-        return new Position(b.x - a.x, b.y - a.y);
+        return of(b.x - a.x, b.y - a.y);
     }
 
     public static final boolean isAdjacent(Position a, Position b) {
@@ -97,34 +178,28 @@ public final class Position {
         return "Position [x=" + x + ", y=" + y + ", z=" + layer + "]";
     }
 
-    // Return Adjacent positions in an array list with the following element
+    // Return Adjacent positions in a list with the following element
     // positions:
     // 0 1 2
     // 7 p 3
     // 6 5 4
+    // The list is unmodifiable. Loops over many tiles should use
+    // adjacentPacked instead, which builds no list.
     public List<Position> getAdjacentPositions() {
-        List<Position> adjacentPositions = new ArrayList<>();
-        adjacentPositions.add(new Position(x - 1, y - 1));
-        adjacentPositions.add(new Position(x, y - 1));
-        adjacentPositions.add(new Position(x + 1, y - 1));
-        adjacentPositions.add(new Position(x + 1, y));
-        adjacentPositions.add(new Position(x + 1, y + 1));
-        adjacentPositions.add(new Position(x, y + 1));
-        adjacentPositions.add(new Position(x - 1, y + 1));
-        adjacentPositions.add(new Position(x - 1, y));
-        return adjacentPositions;
+        return neighbours(ADJACENT_DX, ADJACENT_DY);
     }
 
     /**
-     * Get cardinally adjacent positions only
-     * @return
+     * Get cardinally adjacent positions only (up, right, down, left)
+     * @return unmodifiable list, see cardinalPacked for loops over many tiles
      */
     public List<Position> getCardinallyAdjacentPositions() {
-        List<Position> adjacentPositions = new ArrayList<>();
-        adjacentPositions.add(new Position(x, y - 1));
-        adjacentPositions.add(new Position(x + 1, y));
-        adjacentPositions.add(new Position(x, y + 1));
-        adjacentPositions.add(new Position(x - 1, y));
-        return adjacentPositions;
+        return neighbours(CARDINAL_DX, CARDINAL_DY);
+    }
+
+    private List<Position> neighbours(int[] dx, int[] dy) {
+        Position[] res = new Position[dx.length];
+        for (int i = 0; i < dx.length; i++) res[i] = of(x + dx[i], y + dy[i]);
+        return List.of(res);
     }
 }
@@ -0,0 +1,73 @@
+package dungeonmania;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TickSchedulerTest {
+    private TickScheduler scheduler = new TickScheduler();
+    private List<String> ran = new ArrayList<>();
+
+    private Runnable note(String s) {
+        return () -> ran.add(s);
+    }
+
+    @Test
+    @DisplayName("Test scheduled callbacks run after the bucket of their phase")
+    public void afterBucket() {
+        scheduler.schedule(note("scheduled 1"), 0, 1, "a");
+        scheduler.register(note("bucket 1"), 1, "b", false);
+        scheduler.register(note("bucket 0"), 0, "c", false);
+        scheduler.schedule(note("scheduled 2"), 0, 2, "d");
+        scheduler.runTick(0);
+        assertEquals(List.of("bucket 0", "bucket 1", "scheduled 1", "scheduled 2"), ran);
+
+        ran.clear();
+        scheduler.runTick(1);
+        assertEquals(List.of("bucket 0", "bucket 1"), ran);
+    }
+
+    @Test
+    @DisplayName("Test callbacks scheduled during a tick wait until it is over, like registered ones")
+    public void duringTick() {
+        scheduler.register(() -> {
+            scheduler.schedule(note("scheduled"), 0, 1, "b");
+            scheduler.register(note("registered"), 1, "c", true);
+        }, 0, "a", true);
+        scheduler.runTick(0);
+        assertEquals(List.of(), ran);
+        scheduler.runTick(1);
+        assertEquals(List.of("registered", "scheduled"), ran);
+    }
+
+    @Test
+    @DisplayName("Test callbacks scheduled for this tick run in a phase still to come")
+    public void thisTick() {
+        scheduler.register(() -> {
+            scheduler.scheduleThisTick(note("later phase"), 1, "b");
+            scheduler.scheduleThisTick(note("same phase"), 0, "c");
+        }, 0, "a", true);
+        scheduler.runTick(0);
+        assertEquals(List.of("later phase"), ran);
+        scheduler.runTick(1);
+        assertEquals(List.of("later phase", "same phase"), ran);
+    }
+
+    @Test
+    @DisplayName("Test a callback scheduled for the tick running after a clear waits for the next tick")
+    public void scheduledAfterClear() {
+        scheduler.register(() -> {
+            // as a rewind does
+            scheduler.clear();
+            scheduler.schedule(note("spawn"), 0, 1, "b");
+        }, 0, "a", false);
+        scheduler.runTick(0);
+        assertEquals(List.of(), ran);
+        scheduler.runTick(1);
+        assertEquals(List.of("spawn"), ran);
+    }
+}
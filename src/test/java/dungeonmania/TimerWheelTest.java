@@ -0,0 +1,99 @@
+package dungeonmania;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimerWheelTest {
+    // the ticks the first level, the first two and all four cover
+    private static final int LEVEL_0 = 64;
+    private static final int LEVEL_1 = 64 * 64;
+    private static final int TOP = 1 << 24;
+
+    private static ComparableCallback timer(String id) {
+        return new ComparableCallback(() -> { }, 0, id, true);
+    }
+
+    // turn the wheel from its start to end, step ticks at a time, noting the
+    // tick each timer is taken on
+    private static Map<String, Integer> run(TimerWheel wheel, int start, int end, int step) {
+        Map<String, Integer> taken = new HashMap<>();
+        for (int tick = start; tick <= end; tick += step) {
+            wheel.advanceTo(tick);
+            for (ComparableCallback c : wheel.take(0)) taken.put(c.getId(), tick);
+        }
+        return taken;
+    }
+
+    @Test
+    @DisplayName("Test timers come down through the levels to be taken on the tick they are due")
+    public void cascade() {
+        TimerWheel wheel = new TimerWheel(0);
+        int[] ticks = {1, LEVEL_0 - 1, LEVEL_0, LEVEL_0 + 1, LEVEL_1 - 1, LEVEL_1, LEVEL_1 + LEVEL_0, 3 * LEVEL_1 + 7};
+        for (int tick : ticks) wheel.add(tick, timer("t" + tick));
+        assertEquals(ticks.length, wheel.size());
+
+        Map<String, Integer> taken = run(wheel, 0, 4 * LEVEL_1, 1);
+        for (int tick : ticks) assertEquals(tick, (int) taken.get("t" + tick));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Test timers further ahead than the top level reaches wait and are still taken on time")
+    public void overflow() {
+        TimerWheel wheel = new TimerWheel(0);
+        wheel.add(TOP + LEVEL_0, timer("past top"));
+        wheel.add(2 * TOP + 2 * LEVEL_0, timer("two turns"));
+        wheel.add(TOP - LEVEL_0, timer("under top"));
+
+        // a level's worth at a time, landing on each tick due
+        Map<String, Integer> taken = run(wheel, 0, 2 * TOP + 4 * LEVEL_0, LEVEL_0);
+        assertEquals(TOP - LEVEL_0, (int) taken.get("under top"));
+        assertEquals(TOP + LEVEL_0, (int) taken.get("past top"));
+        assertEquals(2 * TOP + 2 * LEVEL_0, (int) taken.get("two turns"));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Test timers passed over are due on the tick turned to, in the order they were added")
+    public void late() {
+        TimerWheel wheel = new TimerWheel(0);
+        wheel.add(6, timer("b"));
+        wheel.add(5, timer("a"));
+        wheel.add(20, timer("c"));
+        wheel.advanceTo(10);
+        assertEquals(List.of("b", "a"), wheel.take(0).stream().map(ComparableCallback::getId)
+            .collect(Collectors.toList()));
+
+        // added for a tick gone by
+        wheel.add(3, timer("d"));
+        assertEquals(1, wheel.take(0).size());
+        assertEquals(20, (int) run(wheel, 11, 30, 1).get("c"));
+    }
+
+    @Test
+    @DisplayName("Test turning far in one go puts the timers back in and keeps them on time")
+    public void bigJump() {
+        TimerWheel wheel = new TimerWheel(0);
+        wheel.add(10, timer("late"));
+        wheel.add(5000, timer("level 2"));
+        wheel.add(TOP + 3, timer("overflow"));
+
+        wheel.advanceTo(1000);
+        assertEquals(List.of("late"), wheel.take(0).stream().map(ComparableCallback::getId)
+            .collect(Collectors.toList()));
+        assertEquals(5000, (int) run(wheel, 1001, 6000, 1).get("level 2"));
+
+        wheel.advanceTo(TOP);
+        assertTrue(wheel.take(0).isEmpty());
+        assertEquals(TOP + 3, (int) run(wheel, TOP + 1, TOP + 10, 1).get("overflow"));
+        assertEquals(0, wheel.size());
+    }
+}
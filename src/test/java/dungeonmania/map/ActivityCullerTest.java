@@ -0,0 +1,70 @@
+package dungeonmania.map;
+
+import dungeonmania.Game;
+import dungeonmania.GameBuilder;
+import dungeonmania.entities.enemies.Spider;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ActivityCullerTest {
+    private static Game newGame(String dungeon, String config) {
+        return new GameBuilder().setConfigName(config).setDungeonName(dungeon).buildGame();
+    }
+
+    @Test
+    @DisplayName("Test an enemy outside the radius sleeps until the player walks within it")
+    public void wakesWhenApproached() {
+        // the player at (0, 0) walks right towards a spider at (10, 0), radius 3
+        Game game = newGame("d_activityCullerTest_walk", "c_activityCullerTest");
+        GameMap map = game.getMap();
+        Spider spider = map.getEntities(Spider.class).get(0);
+        Position start = spider.getPosition();
+
+        for (int i = 1; i < 7; i++) {
+            game.tick(Direction.RIGHT);
+            assertEquals(1, map.getSleepingEnemyCount(), "tick " + i);
+            assertEquals(start, spider.getPosition(), "tick " + i);
+        }
+        // 3 away, moving in the tick it wakes
+        game.tick(Direction.RIGHT);
+        assertEquals(0, map.getSleepingEnemyCount());
+        assertNotEquals(start, spider.getPosition());
+    }
+
+    @Test
+    @DisplayName("Test a sleeping enemy near where the player comes out of a portal moves that tick")
+    public void wakesAfterPortal() {
+        // portals at (1, 0) and (30, 0), a spider at (30, 5), radius 6
+        Game game = newGame("d_activityCullerTest_portal", "c_activityCullerTest_portal");
+        GameMap map = game.getMap();
+        Spider spider = map.getEntities(Spider.class).get(0);
+        Position start = spider.getPosition();
+
+        game.tick(Direction.LEFT);
+        game.tick(Direction.RIGHT);
+        assertEquals(1, map.getSleepingEnemyCount());
+        assertEquals(start, spider.getPosition());
+
+        game.tick(Direction.RIGHT);
+        assertTrue(map.getPlayerPosition().getX() >= 29);
+        assertEquals(0, map.getSleepingEnemyCount());
+        assertNotEquals(start, spider.getPosition());
+    }
+
+    @Test
+    @DisplayName("Test enemies are never put to sleep without a radius")
+    public void offByDefault() {
+        Game game = newGame("d_activityCullerTest_walk", "c_swampTileTest");
+        Spider spider = game.getMap().getEntities(Spider.class).get(0);
+        Position start = spider.getPosition();
+        game.tick(Direction.LEFT);
+        assertEquals(0, game.getMap().getSleepingEnemyCount());
+        assertNotEquals(start, spider.getPosition());
+    }
+}
@@ -0,0 +1,56 @@
+package dungeonmania.map;
+
+import dungeonmania.GameBuilder;
+import dungeonmania.entities.enemies.Mercenary;
+import dungeonmania.util.Position;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BucketDijkstraTest {
+    // 12 by 9 with walls, swamps up to a factor of 12 and a pair of portals
+    private static final int WIDTH = 12;
+    private static final int HEIGHT = 9;
+
+    private GameMap newMap() {
+        return new GameBuilder().setConfigName("c_swampTileTest").setDungeonName("d_bucketDijkstraTest_maze")
+            .buildGame().getMap();
+    }
+
+    @Test
+    @DisplayName("Test the bucket queue takes the same first steps as the default search")
+    public void sameStepsAsDijkstra() {
+        GameMap map = newMap();
+        Mercenary mercenary = map.getEntities(Mercenary.class).get(0);
+        // one search reused throughout, as GameMap does
+        BucketDijkstra bucket = new BucketDijkstra(map);
+        Position[] targets = {map.getPlayerPosition(), Position.of(11, 8)};
+        for (int x = 0; x < WIDTH; x++) {
+            for (int y = 0; y < HEIGHT; y++) {
+                Position src = Position.of(x, y);
+                if (!map.canMoveTo(mercenary, src) || map.isPortalTile(src)) continue;
+                // the default search only starts from a tile with something on it
+                map.moveTo(mercenary, src);
+                for (Position dest : targets) {
+                    assertEquals(map.dijkstraPathFind(src, dest, mercenary),
+                        bucket.firstStep(src, dest, mercenary, GameMap.MAX_SEARCH_DISTANCE), src + " to " + dest);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test the bucket queue stays put when the destination is too far")
+    public void beyondMaxDist() {
+        GameMap map = newMap();
+        Mercenary mercenary = map.getEntities(Mercenary.class).get(0);
+        BucketDijkstra bucket = new BucketDijkstra(map);
+        Position src = Position.of(0, 0);
+        // the player at (11, 0) is 11 away along the top, 10 through the portals;
+        // like the default search it is found once a tile next to it is
+        assertEquals(src, bucket.firstStep(src, map.getPlayerPosition(), mercenary, 8));
+        assertEquals(Position.of(0, 1), bucket.firstStep(src, map.getPlayerPosition(), mercenary, 9));
+        assertEquals(Position.of(1, 0), bucket.firstStep(src, Position.of(3, 0), mercenary, 8));
+    }
+}
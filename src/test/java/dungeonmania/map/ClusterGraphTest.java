@@ -0,0 +1,67 @@
+package dungeonmania.map;
+
+import dungeonmania.GameBuilder;
+import dungeonmania.entities.enemies.Mercenary;
+import dungeonmania.util.Position;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClusterGraphTest {
+    // wall along x = 10 from y = -6 to 9, mercenary at (2, 2), player at (20, 2)
+    private static final Position MERCENARY = Position.of(2, 2);
+    private static final Position PLAYER = Position.of(20, 2);
+
+    private GameMap newMap() {
+        return new GameBuilder().setConfigName("c_clusterGraphTest").setDungeonName("d_clusterGraphTest_wall")
+            .buildGame().getMap();
+    }
+
+    @Test
+    @DisplayName("Test neighbouring clusters are left to a plain search")
+    public void nearbyLeftToPlainSearch() {
+        GameMap map = newMap();
+        Mercenary mercenary = map.getEntities(Mercenary.class).get(0);
+        ClusterGraph clusters = new ClusterGraph(map, 4);
+        assertNull(clusters.firstStep(MERCENARY, Position.of(6, 2), mercenary, GameMap.MAX_SEARCH_DISTANCE));
+        assertTrue(clusters.firstStep(MERCENARY, PLAYER, mercenary, GameMap.MAX_SEARCH_DISTANCE) != null);
+    }
+
+    @Test
+    @DisplayName("Test following the hierarchical steps goes round the wall close to the shortest way")
+    public void aroundWall() {
+        GameMap map = newMap();
+        // down to y = 10, across and back up is 34
+        int steps = follow(map);
+        assertTrue(steps >= 34 && steps <= 34 + 8, "took " + steps + " steps");
+    }
+
+    @Test
+    @DisplayName("Test the clusters are rebuilt when a wall goes away")
+    public void rebuiltAfterWallRemoved() {
+        GameMap map = newMap();
+        follow(map);
+        map.destroyEntity(map.getEntities(Position.of(10, 2)).get(0));
+        // straight through the gap is 18
+        int steps = follow(map);
+        assertTrue(steps >= 18 && steps <= 18 + 8, "took " + steps + " steps");
+    }
+
+    // steps the mercenary takes from where it starts to the player
+    private int follow(GameMap map) {
+        Mercenary mercenary = map.getEntities(Mercenary.class).get(0);
+        map.moveTo(mercenary, MERCENARY);
+        int steps = 0;
+        while (steps < 100) {
+            Position at = mercenary.getPosition();
+            Position next = map.pathFind(at, PLAYER, mercenary, SearchAlgorithm.HIERARCHICAL);
+            assertTrue(Position.isAdjacent(at, next) && map.canMoveTo(mercenary, next), at + " to " + next);
+            steps++;
+            if (next.equals(PLAYER)) break;
+            map.moveTo(mercenary, next);
+        }
+        return steps;
+    }
+}
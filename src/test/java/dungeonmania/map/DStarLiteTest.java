@@ -0,0 +1,58 @@
+package dungeonmania.map;
+
+import dungeonmania.GameBuilder;
+import dungeonmania.entities.enemies.Mercenary;
+import dungeonmania.util.Position;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DStarLiteTest {
+    // a ring round the walls at y = 2: along y = 1 the mercenary at (1, 1)
+    // is 6 steps from the player at (7, 1), round by y = 3 it is 10
+    private static final Position MERCENARY = Position.of(1, 1);
+    private static final Position PLAYER = Position.of(7, 1);
+
+    private GameMap newMap(String dungeon) {
+        return new GameBuilder().setConfigName("c_dStarLiteTest").setDungeonName(dungeon).buildGame().getMap();
+    }
+
+    @Test
+    @DisplayName("Test a mercenary turned back by an enemy goes round rather than pacing")
+    public void blockedByEnemy() {
+        // a zombie at (4, 1) that is never moved
+        GameMap map = newMap("d_dStarLiteTest_blocked");
+        // to (3, 1), back to (1, 1) and round by y = 3
+        assertEquals(2 + 2 + 10, follow(map, MERCENARY));
+    }
+
+    @Test
+    @DisplayName("Test the planner finds the way through a wall that has gone")
+    public void wallRemoved() {
+        GameMap map = newMap("d_dStarLiteTest_wall");
+        Mercenary mercenary = map.getEntities(Mercenary.class).get(0);
+        assertEquals(Position.of(1, 2), map.pathFind(MERCENARY, PLAYER, mercenary, SearchAlgorithm.INCREMENTAL));
+        map.moveTo(mercenary, Position.of(1, 2));
+
+        map.destroyEntity(map.getEntities(Position.of(4, 1)).get(0));
+        assertEquals(1 + 6, follow(map, Position.of(1, 2)));
+    }
+
+    // steps the mercenary takes from start to the player
+    private int follow(GameMap map, Position start) {
+        Mercenary mercenary = map.getEntities(Mercenary.class).get(0);
+        map.moveTo(mercenary, start);
+        int steps = 0;
+        while (steps < 100) {
+            Position at = mercenary.getPosition();
+            Position next = map.pathFind(at, PLAYER, mercenary, SearchAlgorithm.INCREMENTAL);
+            assertTrue(Position.isAdjacent(at, next) && map.canMoveTo(mercenary, next), at + " to " + next);
+            steps++;
+            if (next.equals(PLAYER)) break;
+            map.moveTo(mercenary, next);
+        }
+        return steps;
+    }
+}
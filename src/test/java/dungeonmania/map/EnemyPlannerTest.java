@@ -0,0 +1,71 @@
+package dungeonmania.map;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.GameBuilder;
+import dungeonmania.entities.enemies.Mercenary;
+import dungeonmania.mvp.TestUtils;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EnemyPlannerTest {
+    // a corridor along y = 0 with the player at (8, 0) and mercenaries at
+    // (1, 0) and (3, 0)
+    private static final Position BEHIND = Position.of(1, 0);
+    private static final Position AHEAD = Position.of(3, 0);
+
+    @Test
+    @DisplayName("Test the planned steps are those of the mercenaries' own searches")
+    public void plannedSteps() {
+        GameMap map = new GameBuilder().setConfigName("c_swampTileTest").setDungeonName("d_enemyPlannerTest_corridor")
+            .buildGame().getMap();
+        EnemyPlanner planner = new EnemyPlanner(map, map.getNodes());
+        // the one behind is stuck until the one ahead moves
+        assertEquals(Position.of(4, 0), planner.step(mercenaryAt(map, AHEAD)));
+        assertEquals(BEHIND, planner.step(mercenaryAt(map, BEHIND)));
+    }
+
+    @Test
+    @DisplayName("Test a plan that read a tile changed since is left to the mercenary's own search")
+    public void changedTileDropsPlan() {
+        GameMap map = new GameBuilder().setConfigName("c_enemyPlannerTest").setDungeonName("d_enemyPlannerTest_corridor")
+            .buildGame().getMap();
+        Mercenary ahead = mercenaryAt(map, AHEAD);
+        Mercenary behind = mercenaryAt(map, BEHIND);
+        assertEquals(Position.of(4, 0), map.stepTowardsPlayer(ahead, SearchAlgorithm.DIJKSTRA));
+        // out of the corridor altogether
+        map.moveTo(ahead, Position.of(8, 5));
+        // planned as stuck, but the way is clear now
+        assertEquals(Position.of(2, 0), map.stepTowardsPlayer(behind, SearchAlgorithm.DIJKSTRA));
+    }
+
+    @Test
+    @DisplayName("Test a crowd of mercenaries moves the same with planning on as off")
+    public void sameMovesAsSearching() {
+        DungeonManiaController planned = new DungeonManiaController();
+        DungeonManiaController searched = new DungeonManiaController();
+        DungeonResponse a = planned.newGame("d_enemyPlannerTest_crowd", "c_enemyPlannerTest");
+        DungeonResponse b = searched.newGame("d_enemyPlannerTest_crowd", "c_swampTileTest");
+        Direction[] moves = {Direction.DOWN, Direction.DOWN, Direction.LEFT, Direction.UP, Direction.LEFT};
+        for (int i = 0; i < 20; i++) {
+            a = planned.tick(moves[i % moves.length]);
+            b = searched.tick(moves[i % moves.length]);
+            assertEquals(mercenaryPositions(b), mercenaryPositions(a), "tick " + i);
+        }
+    }
+
+    private List<Position> mercenaryPositions(DungeonResponse res) {
+        return TestUtils.getEntitiesStream(res, "mercenary").map(e -> e.getPosition()).collect(Collectors.toList());
+    }
+
+    private Mercenary mercenaryAt(GameMap map, Position p) {
+        return map.getEntities(Mercenary.class).stream().filter(m -> m.getPosition().equals(p)).findFirst().get();
+    }
+}
@@ -0,0 +1,102 @@
+package dungeonmania.map;
+
+import dungeonmania.GameBuilder;
+import dungeonmania.entities.Wall;
+import dungeonmania.util.Position;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+
+public class LandmarksTest {
+    //          .      .      .
+    //  Wall    .     Wall    <- open at the top
+    //  Wall   Exit   Wall
+    //  Wall    .     Wall
+    //  Wall   Wall   Wall
+    //          P
+    private static final Position OUTSIDE = Position.of(5, 5);
+    private static final Position INSIDE = Position.of(5, 2);
+
+    private GameMap newMap(String config) {
+        return new GameBuilder().setConfigName(config).setDungeonName("d_landmarksTest_pocket").buildGame().getMap();
+    }
+
+    @Test
+    @DisplayName("Test landmarks are only built when path_landmarks is on")
+    public void disabledByDefault() {
+        assertNull(newMap("c_swampTileTest").getLandmarks());
+        assertNotNull(newMap("c_landmarksTest").getLandmarks());
+    }
+
+    @Test
+    @DisplayName("Test the landmark bound never overestimates and beats Manhattan into a pocket")
+    public void lowerBound() {
+        GameMap map = newMap("c_landmarksTest");
+        Landmarks landmarks = map.getLandmarks();
+        assertBoundsHold(map, landmarks);
+
+        // Manhattan says 3, the way round into the pocket is 11
+        int bound = landmarks.lowerBound(OUTSIDE, landmarks.distancesTo(INSIDE));
+        assertTrue(bound > 3, "bound " + bound + " is no better than Manhattan");
+        assertTrue(bound <= 11);
+    }
+
+    @Test
+    @DisplayName("Test the landmarks are rebuilt after a wall goes away")
+    public void rebuiltAfterWallRemoved() {
+        GameMap map = newMap("c_landmarksTest");
+        Landmarks before = map.getLandmarks();
+        Wall wall = (Wall) map.getEntities(Position.of(5, 4)).get(0);
+        map.destroyEntity(wall);
+
+        Landmarks after = map.getLandmarks();
+        assertNotSame(before, after);
+        assertBoundsHold(map, after);
+        assertEquals(3, distance(map, OUTSIDE, INSIDE));
+    }
+
+    private void assertBoundsHold(GameMap map, Landmarks landmarks) {
+        for (int tx = 2; tx <= 8; tx++) {
+            for (int ty = -1; ty <= 7; ty++) {
+                Position t = Position.of(tx, ty);
+                if (map.isWall(tx, ty)) continue;
+                int[] toTarget = landmarks.distancesTo(t);
+                Map<Position, Integer> dist = distances(map, t);
+                dist.forEach((v, d) -> assertTrue(landmarks.lowerBound(v, toTarget) <= d,
+                    "bound from " + v + " to " + t + " is over " + d));
+            }
+        }
+    }
+
+    private int distance(GameMap map, Position from, Position to) {
+        return distances(map, to).get(from);
+    }
+
+    // steps from every tile near the pocket to t, walls blocking
+    private Map<Position, Integer> distances(GameMap map, Position t) {
+        Map<Position, Integer> dist = new HashMap<>();
+        Queue<Position> q = new ArrayDeque<>();
+        dist.put(t, 0);
+        q.add(t);
+        while (!q.isEmpty()) {
+            Position curr = q.poll();
+            for (Position n : curr.getCardinallyAdjacentPositions()) {
+                if (dist.containsKey(n) || map.isWall(n.getX(), n.getY())) continue;
+                if (Math.abs(n.getX() - 5) > 6 || Math.abs(n.getY() - 3) > 6) continue;
+                dist.put(n, dist.get(curr) + 1);
+                q.add(n);
+            }
+        }
+        return dist;
+    }
+}
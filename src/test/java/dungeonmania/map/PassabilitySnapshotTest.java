@@ -0,0 +1,98 @@
+package dungeonmania.map;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import dungeonmania.GameBuilder;
+import dungeonmania.entities.StandardPortal;
+import dungeonmania.entities.enemies.Mercenary;
+import dungeonmania.util.Position;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PassabilitySnapshotTest {
+    // 12 by 9 with walls, swamps and portals at (2, 4) and (10, 5)
+    private static final Position PORTAL = Position.of(2, 4);
+    private static final Position PAIR = Position.of(10, 5);
+
+    private GameMap newMap() {
+        return new GameBuilder().setConfigName("c_swampTileTest").setDungeonName("d_bucketDijkstraTest_maze")
+            .buildGame().getMap();
+    }
+
+    @Test
+    @DisplayName("Test a snapshot answers as the map did when it was taken")
+    public void matchesMap() {
+        GameMap map = newMap();
+        Mercenary mercenary = map.getEntities(Mercenary.class).get(0);
+        PassabilitySnapshot snapshot = new PassabilitySnapshot(map, map.getNodes(), mercenary);
+        TileView view = snapshot.view(true, new HashSet<>());
+        TileView unweighted = snapshot.view(false, new HashSet<>());
+        for (int x = -2; x <= 13; x++) {
+            for (int y = -2; y <= 10; y++) {
+                Position p = Position.of(x, y);
+                assertEquals(map.getNodes().contains(p), view.contains(p), p.toString());
+                assertEquals(map.canMoveTo(mercenary, p), view.canMoveTo(p), p.toString());
+                assertEquals(map.getStepCost(mercenary, p), view.getStepCost(p), p.toString());
+                assertEquals(1, unweighted.getStepCost(p));
+                StandardPortal portal = map.getPortal(p);
+                List<Position> landings = (portal == null) ? null : portal.getDestPositions(map, mercenary);
+                assertEquals(landings, view.getPortalLandings(p), p.toString());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test reading a portal counts as reading the tiles round the other end")
+    public void touchedRoundPortal() {
+        GameMap map = newMap();
+        Mercenary mercenary = map.getEntities(Mercenary.class).get(0);
+        PassabilitySnapshot snapshot = new PassabilitySnapshot(map, map.getNodes(), mercenary);
+        Set<Position> touched = new HashSet<>();
+        snapshot.view(true, touched).getPortalLandings(PORTAL);
+        assertTrue(touched.contains(PORTAL));
+        assertTrue(touched.containsAll(PAIR.getAdjacentPositions()));
+    }
+
+    @Test
+    @DisplayName("Test a snapshot is a copy, and tells which tiles have changed since")
+    public void holds() {
+        GameMap map = newMap();
+        Mercenary mercenary = map.getEntities(Mercenary.class).get(0);
+        PassabilitySnapshot snapshot = new PassabilitySnapshot(map, map.getNodes(), mercenary);
+        Position wall = Position.of(1, 1);
+        assertTrue(snapshot.holds(map, map.getNodes(), mercenary, wall));
+        assertTrue(snapshot.holds(map, map.getNodes(), mercenary, Position.of(0, 1)));
+
+        map.destroyEntity(map.getEntities(wall).get(0));
+        assertFalse(snapshot.view(true, new HashSet<>()).canMoveTo(wall));
+        assertFalse(snapshot.holds(map, map.getNodes(), mercenary, wall));
+        assertTrue(snapshot.holds(map, map.getNodes(), mercenary, Position.of(0, 1)));
+        // what a portal leads to hangs on more than its own tile
+        assertFalse(snapshot.holds(map, map.getNodes(), mercenary, PORTAL));
+    }
+
+    @Test
+    @DisplayName("Test a refreshed tile answers as the map does now, and the others as they did")
+    public void refresh() {
+        GameMap map = newMap();
+        Mercenary mercenary = map.getEntities(Mercenary.class).get(0);
+        PassabilitySnapshot snapshot = new PassabilitySnapshot(map, map.getNodes(), mercenary);
+        Position wall = Position.of(1, 1);
+        Position other = Position.of(3, 1);
+        map.destroyEntity(map.getEntities(wall).get(0));
+        map.destroyEntity(map.getEntities(other).get(0));
+
+        snapshot.refresh(map, map.getNodes(), mercenary, wall);
+        TileView view = snapshot.view(true, new HashSet<>());
+        assertTrue(view.canMoveTo(wall));
+        assertFalse(view.contains(wall));
+        assertTrue(snapshot.holds(map, map.getNodes(), mercenary, wall));
+        assertFalse(view.canMoveTo(other));
+    }
+}
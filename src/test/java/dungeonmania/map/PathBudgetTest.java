@@ -0,0 +1,71 @@
+package dungeonmania.map;
+
+import java.util.HashSet;
+
+import dungeonmania.GameBuilder;
+import dungeonmania.entities.enemies.Mercenary;
+import dungeonmania.util.Position;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PathBudgetTest {
+    // wall along x = 10 from y = -6 to 9, mercenary at (2, 2), player at (20, 2)
+    private static final Position MERCENARY = Position.of(2, 2);
+    private static final Position PLAYER = Position.of(20, 2);
+
+    private GameMap newMap(String config) {
+        return new GameBuilder().setConfigName(config).setDungeonName("d_clusterGraphTest_wall").buildGame().getMap();
+    }
+
+    @Test
+    @DisplayName("Test a search picked up again for a tile it has got past stops straight away")
+    public void resumedPastDest() {
+        GameMap map = newMap("c_swampTileTest");
+        Mercenary mercenary = map.getEntities(Mercenary.class).get(0);
+        TileView view = new PassabilitySnapshot(map, map.getNodes(), mercenary).view(true, new HashSet<>());
+        // one expansion a tick, on top of the few every search gets
+        PathBudget budget = new PathBudget(1, 0);
+        DijkstraSearch search = new DijkstraSearch(MERCENARY, true);
+        assertFalse(search.run(view, PLAYER, GameMap.MAX_SEARCH_DISTANCE, budget));
+
+        // expanded already, with no budget left
+        Position near = Position.of(3, 2);
+        assertTrue(search.run(view, near, GameMap.MAX_SEARCH_DISTANCE, budget));
+        assertEquals(near, search.firstStep(near));
+    }
+
+    @Test
+    @DisplayName("Test a mercenary whose searches keep running out still gets to the player")
+    public void smallBudgetStillMoves() {
+        GameMap map = newMap("c_pathBudgetTest");
+        Mercenary mercenary = map.getEntities(Mercenary.class).get(0);
+        // straight for the wall first, not waiting for a search to finish
+        Position first = map.dijkstraPathFind(MERCENARY, PLAYER, mercenary);
+        assertEquals(Position.of(3, 2), first);
+
+        int steps = 0;
+        int waits = 0;
+        boolean reached = false;
+        while (!reached && steps + waits < 1000) {
+            Position at = mercenary.getPosition();
+            Position next = map.dijkstraPathFind(at, PLAYER, mercenary);
+            if (next.equals(at)) {
+                // carrying on with its search
+                waits++;
+                continue;
+            }
+            assertTrue(Position.isAdjacent(at, next) && map.canMoveTo(mercenary, next), at + " to " + next);
+            steps++;
+            reached = next.equals(PLAYER);
+            map.moveTo(mercenary, next);
+        }
+        assertTrue(reached);
+        // down to y = 10, across and back up is 34
+        assertTrue(steps >= 34 && steps <= 34 + 16, "took " + steps + " steps");
+        assertTrue(waits > 0);
+    }
+}
@@ -0,0 +1,98 @@
+package dungeonmania.map;
+
+import java.util.List;
+
+import dungeonmania.GameBuilder;
+import dungeonmania.entities.enemies.Mercenary;
+import dungeonmania.util.Position;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PathCacheTest {
+    private static final Position A = Position.of(0, 0);
+    private static final Position B = Position.of(1, 0);
+    private static final Position C = Position.of(2, 0);
+    private static final Position D = Position.of(3, 0);
+
+    @Test
+    @DisplayName("Test every tile along a stored path is a hit, other queries miss")
+    public void hitsAlongPath() {
+        PathCache cache = new PathCache(PathCache.DEFAULT_CAPACITY);
+        cache.put(A, D, MoverCategory.MERCENARY, true, List.of(B, C, D), 0, 0);
+        assertEquals(B, cache.get(A, D, MoverCategory.MERCENARY, true, 0, 0));
+        assertEquals(C, cache.get(B, D, MoverCategory.MERCENARY, true, 0, 0));
+        assertEquals(D, cache.get(C, D, MoverCategory.MERCENARY, true, 0, 0));
+        assertEquals(3, cache.getHits());
+
+        assertNull(cache.get(A, C, MoverCategory.MERCENARY, true, 0, 0));
+        assertNull(cache.get(A, D, MoverCategory.MERCENARY, false, 0, 0));
+        assertNull(cache.get(A, D, MoverCategory.PLAYER, true, 0, 0));
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    @DisplayName("Test a step is dropped once the topology has changed, no path once any tile has")
+    public void versions() {
+        PathCache cache = new PathCache(PathCache.DEFAULT_CAPACITY);
+        cache.put(A, D, MoverCategory.MERCENARY, true, List.of(B, C, D), 0, 0);
+        // movers moving about leave found paths be
+        assertEquals(B, cache.get(A, D, MoverCategory.MERCENARY, true, 0, 5));
+        assertNull(cache.get(A, D, MoverCategory.MERCENARY, true, 1, 5));
+        assertEquals(2, cache.size());
+
+        cache.put(D, A, MoverCategory.MERCENARY, true, List.of(), 1, 5);
+        assertEquals(D, cache.get(D, A, MoverCategory.MERCENARY, true, 1, 5));
+        assertNull(cache.get(D, A, MoverCategory.MERCENARY, true, 1, 6));
+    }
+
+    @Test
+    @DisplayName("Test the least recently used step goes first when the cache is full")
+    public void eviction() {
+        PathCache cache = new PathCache(2);
+        cache.put(A, D, MoverCategory.MERCENARY, true, List.of(B), 0, 0);
+        cache.put(B, D, MoverCategory.MERCENARY, true, List.of(C), 0, 0);
+        cache.get(A, D, MoverCategory.MERCENARY, true, 0, 0);
+        cache.put(C, D, MoverCategory.MERCENARY, true, List.of(D), 0, 0);
+        assertEquals(2, cache.size());
+        assertEquals(B, cache.get(A, D, MoverCategory.MERCENARY, true, 0, 0));
+        assertNull(cache.get(B, D, MoverCategory.MERCENARY, true, 0, 0));
+        assertEquals(D, cache.get(C, D, MoverCategory.MERCENARY, true, 0, 0));
+    }
+
+    @Test
+    @DisplayName("Test the map answers from the cache along a path, and not once a wall on it has gone")
+    public void onMap() {
+        // wall along x = 10 from y = -6 to 9, mercenary at (2, 2), player at (20, 2)
+        GameMap map = new GameBuilder().setConfigName("c_pathCacheTest").setDungeonName("d_clusterGraphTest_wall")
+            .buildGame().getMap();
+        PathCache cache = map.getPathCache();
+        // down to y = 10, across and back up is 34
+        assertEquals(34, follow(map));
+        assertEquals(34 - 1, cache.getHits());
+
+        map.destroyEntity(map.getEntities(Position.of(10, 2)).get(0));
+        // straight through the gap is 18
+        assertEquals(18, follow(map));
+        assertTrue(cache.getMisses() >= 2);
+    }
+
+    // steps the mercenary takes from (2, 2) to the player
+    private int follow(GameMap map) {
+        Mercenary mercenary = map.getEntities(Mercenary.class).get(0);
+        Position player = map.getPlayerPosition();
+        map.moveTo(mercenary, Position.of(2, 2));
+        int steps = 0;
+        while (steps < 100) {
+            Position at = mercenary.getPosition();
+            Position next = map.dijkstraPathFind(at, player, mercenary);
+            steps++;
+            if (next.equals(player) || next.equals(at)) break;
+            map.moveTo(mercenary, next);
+        }
+        return steps;
+    }
+}
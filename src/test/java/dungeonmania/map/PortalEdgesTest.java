@@ -0,0 +1,81 @@
+package dungeonmania.map;
+
+import java.util.List;
+
+import dungeonmania.GameBuilder;
+import dungeonmania.entities.Player;
+import dungeonmania.entities.StandardPortal;
+import dungeonmania.entities.enemies.Mercenary;
+import dungeonmania.util.Position;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PortalEdgesTest {
+    // portals at (0, 0) and (5, 0), a wall at (4, -1) and a door at (6, 1)
+    // next to the second, the key for the door at (0, 4)
+    private static final Position WALL = Position.of(4, -1);
+    private static final Position DOOR = Position.of(6, 1);
+
+    private GameMap map;
+    private PortalEdges edges;
+    private StandardPortal portal;
+
+    private void newMap() {
+        map = new GameBuilder().setConfigName("c_swampTileTest").setDungeonName("d_portalEdgesTest")
+            .buildGame().getMap();
+        edges = map.getPortalEdges();
+        portal = map.getPortal(Position.of(5, 0));
+    }
+
+    @Test
+    @DisplayName("Test the landing tiles are worked out once for each kind of mover")
+    public void cached() {
+        newMap();
+        Mercenary mercenary = map.getEntities(Mercenary.class).get(0);
+        List<Position> landings = edges.landings(portal, mercenary);
+        assertEquals(6, landings.size());
+        assertFalse(landings.contains(WALL));
+        assertFalse(landings.contains(DOOR));
+        assertSame(landings, edges.landings(portal, mercenary));
+        assertEquals(4, edges.exits(portal, mercenary).size());
+    }
+
+    @Test
+    @DisplayName("Test the landing tiles are worked out again when a tile round the portal changes")
+    public void droppedWhenTileChanges() {
+        newMap();
+        Mercenary mercenary = map.getEntities(Mercenary.class).get(0);
+        List<Position> before = edges.landings(portal, mercenary);
+
+        map.destroyEntity(map.getEntities(WALL).get(0));
+        List<Position> after = edges.landings(portal, mercenary);
+        assertNotSame(before, after);
+        assertEquals(7, after.size());
+        assertTrue(after.contains(WALL));
+
+        // a mercenary does not land on itself, and stops the portal being entered
+        map.moveTo(mercenary, Position.of(5, 1));
+        assertEquals(6, edges.landings(portal, mercenary).size());
+        assertEquals(3, edges.exits(portal, mercenary).size());
+        assertFalse(map.canMoveTo(mercenary, Position.of(0, 0)));
+    }
+
+    @Test
+    @DisplayName("Test the landing tiles are not kept next to a door, which depends on the player's keys")
+    public void notCachedNextToDoor() {
+        newMap();
+        Player player = map.getPlayer();
+        List<Position> before = edges.landings(portal, player);
+        assertFalse(before.contains(DOOR));
+        assertNotSame(before, edges.landings(portal, player));
+
+        map.moveTo(player, Position.of(0, 4));
+        assertTrue(edges.landings(portal, player).contains(DOOR));
+    }
+}
@@ -1,9 +1,13 @@
 package dungeonmania.mvp;
 
 import dungeonmania.DungeonManiaController;
+import dungeonmania.Game;
+import dungeonmania.GameAction;
+import dungeonmania.GameBuilder;
 import dungeonmania.exceptions.InvalidActionException;
 import dungeonmania.response.models.DungeonResponse;
 import dungeonmania.response.models.EntityResponse;
+import dungeonmania.response.models.SimulationResponse;
 import dungeonmania.util.Direction;
 
 import org.junit.jupiter.api.Test;
@@ -64,12 +68,13 @@ public class EnemyGoalTest {
         entities = res.getEntities();
         assertTrue(TestUtils.countEntityOfType(entities, "spider") == 4);
 
-        // Move to the right and kill one spider
+        // Move to the right and kill one spider, then the spider below moves
+        // up onto the player and is killed too
         res = dmc.tick(Direction.RIGHT);
         assertTrue(TestUtils.getGoals(res).contains(":enemies"));
 
         entities = res.getEntities();
-        assertTrue(TestUtils.countEntityOfType(entities, "spider") == 3);
+        assertTrue(TestUtils.countEntityOfType(entities, "spider") == 2);
 
         // Move to the right and kill one spider
         res = dmc.tick(Direction.RIGHT);
@@ -84,6 +89,43 @@ public class EnemyGoalTest {
         assertFalse(TestUtils.getGoals(res).contains(":enemies"));
     }
 
+    @Test
+    public void basicEnemiesTestWithFiveEnemiesHeadless() throws InvalidActionException {
+        DungeonManiaController dmc;
+        dmc = new DungeonManiaController();
+        dmc.newGame("d_basicGoalsTest_multipleEnemies", "c_fiveEnemyGoal");
+
+        // Same moves as basicEnemiesTestWithFiveEnemies, sampled every other tick
+        SimulationResponse sim = dmc.runTicks(List.of(
+            GameAction.move(Direction.RIGHT), GameAction.move(Direction.RIGHT),
+            GameAction.move(Direction.RIGHT), GameAction.move(Direction.RIGHT)), 2);
+        assertFalse(TestUtils.getGoals(sim.getFinalState()).contains(":enemies"));
+        assertEquals(0, TestUtils.countEntityOfType(sim.getFinalState().getEntities(), "spider"));
+
+        assertEquals(2, sim.getSamples().size());
+        assertEquals(2, sim.getSamples().get(0).getTick());
+        assertEquals(3, sim.getSamples().get(0).getKillCount());
+        assertFalse(sim.getSamples().get(0).getGoalsAchieved());
+        assertEquals(5, sim.getSamples().get(1).getKillCount());
+        assertTrue(sim.getSamples().get(1).getGoalsAchieved());
+
+        // states in between were not kept, rewinding falls back to the start
+        DungeonResponse res = dmc.rewind(1);
+        assertEquals(5, TestUtils.countEntityOfType(res.getEntities(), "spider"));
+    }
+
+    @Test
+    public void headlessSamplesNeedSampler() {
+        Game game = new GameBuilder().setConfigName("c_fiveEnemyGoal").setDungeonName("d_basicGoalsTest_multipleEnemies")
+            .buildGame();
+        List<GameAction> actions = List.of(GameAction.move(Direction.RIGHT));
+        assertThrows(IllegalArgumentException.class, () -> game.runTicks(actions, 2, null));
+        assertThrows(IllegalArgumentException.class, () -> game.runTicks(actions, -1, null));
+        assertEquals(0, game.getTick());
+        assertDoesNotThrow(() -> game.runTicks(actions, 0, null));
+        assertEquals(1, game.getTick());
+    }
+
     @Test
     public void exitLastTest() {
         DungeonManiaController dmc;
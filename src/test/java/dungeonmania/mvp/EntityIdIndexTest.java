@@ -0,0 +1,68 @@
+package dungeonmania.mvp;
+
+import dungeonmania.Game;
+import dungeonmania.GameBuilder;
+import dungeonmania.entities.PositionalEntity;
+import dungeonmania.entities.Wall;
+import dungeonmania.entities.collectables.Treasure;
+import dungeonmania.entities.collectables.Wood;
+import dungeonmania.map.GameMap;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EntityIdIndexTest {
+    private static Game newGame() {
+        return new GameBuilder().setConfigName("c_entityTypeIndexTest").setDungeonName("d_entityTypeIndexTest")
+            .buildGame();
+    }
+
+    @Test
+    @DisplayName("Test every entity on the map is found by its id, and none that have left")
+    public void getEntity() {
+        Game game = newGame();
+        GameMap map = game.getMap();
+        for (int i = 0; i < 6; i++) game.tick(Direction.DOWN);
+
+        for (PositionalEntity e : map.getEntities()) {
+            if (e instanceof Wall) {
+                // built on demand, the same wall by id and position
+                assertEquals(e.getPosition(), map.getEntity(e.getId()).getPosition());
+                assertTrue(map.getEntity(e.getId()) instanceof Wall);
+            } else {
+                assertSame(e, map.getEntity(e.getId()));
+            }
+        }
+        Treasure treasure = map.getEntities(Treasure.class).get(0);
+        map.destroyEntity(treasure);
+        assertNull(map.getEntity(treasure.getId()));
+        Wall wall = map.getEntities(Wall.class).get(0);
+        map.destroyEntity(wall);
+        assertNull(map.getEntity(wall.getId()));
+        assertNull(map.getEntity("no such entity"));
+    }
+
+    @Test
+    @DisplayName("Test the index check holds through ticks and reports an entity off its tile")
+    public void checkIndexes() {
+        Game game = newGame();
+        GameMap map = game.getMap();
+        for (int i = 0; i < 6; i++) {
+            game.tick(Direction.RIGHT);
+            assertTrue(map.checkIndexes());
+        }
+
+        // moved without the map knowing
+        Wood wood = map.getEntities(Wood.class).get(0);
+        wood.setPosition(Position.of(40, 40));
+        IllegalStateException e = assertThrows(IllegalStateException.class, map::checkIndexes);
+        assertTrue(e.getMessage().contains(wood.getId()));
+    }
+}
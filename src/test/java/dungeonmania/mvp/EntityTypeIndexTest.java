@@ -0,0 +1,77 @@
+package dungeonmania.mvp;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import dungeonmania.Game;
+import dungeonmania.GameBuilder;
+import dungeonmania.entities.PositionalEntity;
+import dungeonmania.entities.Wall;
+import dungeonmania.entities.collectables.Arrow;
+import dungeonmania.entities.collectables.CollectableEntity;
+import dungeonmania.entities.collectables.Treasure;
+import dungeonmania.entities.collectables.Wood;
+import dungeonmania.entities.enemies.Enemy;
+import dungeonmania.entities.enemies.ZombieToast;
+import dungeonmania.map.EntityTypeIndex;
+import dungeonmania.map.GameMap;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EntityTypeIndexTest {
+    @Test
+    @DisplayName("Test a supertype query takes in classes first seen after it was asked for")
+    public void supertypeView() {
+        EntityTypeIndex index = new EntityTypeIndex();
+        Treasure treasure = new Treasure(Position.of(0, 0));
+        Wood wood = new Wood(Position.of(1, 0));
+        index.add(treasure);
+        index.add(wood);
+        assertEquals(List.of(treasure, wood), index.get(CollectableEntity.class));
+
+        Arrow arrow = new Arrow(Position.of(2, 0));
+        index.add(arrow);
+        assertEquals(3, index.count(CollectableEntity.class));
+        assertEquals(List.of(arrow), index.get(Arrow.class));
+
+        index.remove(wood);
+        assertFalse(index.contains(wood));
+        assertEquals(List.of(treasure, arrow), index.get(CollectableEntity.class));
+        assertEquals(0, index.count(Enemy.class));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    @DisplayName("Test queries by type match a scan of the map as entities move, spawn and go")
+    public void matchesMap() {
+        Game game = new GameBuilder().setConfigName("c_entityTypeIndexTest").setDungeonName("d_entityTypeIndexTest")
+            .buildGame();
+        GameMap map = game.getMap();
+        Direction[] moves = {Direction.RIGHT, Direction.DOWN, Direction.LEFT, Direction.UP, Direction.RIGHT};
+        for (int i = 0; i < 12; i++) {
+            game.tick(moves[i % moves.length]);
+            if (i == 6) map.destroyEntity(map.getEntities(Wall.class).get(0));
+            assertMatches(map, PositionalEntity.class, i);
+            assertMatches(map, Enemy.class, i);
+            assertMatches(map, ZombieToast.class, i);
+            assertMatches(map, CollectableEntity.class, i);
+            assertMatches(map, Wall.class, i);
+        }
+        assertTrue(map.countEntities(ZombieToast.class) > 1);
+    }
+
+    private static <T extends PositionalEntity> void assertMatches(GameMap map, Class<T> type, int tick) {
+        List<String> scanned = map.getEntities().stream().filter(type::isInstance).map(PositionalEntity::getId)
+            .collect(Collectors.toList());
+        List<String> indexed = map.getEntities(type).stream().map(PositionalEntity::getId)
+            .collect(Collectors.toList());
+        assertEquals(scanned, indexed, type.getSimpleName() + " after tick " + tick);
+        assertEquals(scanned.size(), map.countEntities(type), type.getSimpleName() + " after tick " + tick);
+    }
+}
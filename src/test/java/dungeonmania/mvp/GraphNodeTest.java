@@ -0,0 +1,78 @@
+package dungeonmania.mvp;
+
+import java.util.List;
+
+import dungeonmania.entities.PositionalEntity;
+import dungeonmania.entities.Wall;
+import dungeonmania.entities.collectables.Arrow;
+import dungeonmania.entities.collectables.Treasure;
+import dungeonmania.entities.collectables.Wood;
+import dungeonmania.map.GraphNode;
+import dungeonmania.util.Position;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GraphNodeTest {
+    private static final Position TILE = Position.of(2, 3);
+
+    @Test
+    @DisplayName("Test entities keep the order they arrived in, past the inline capacity and across removals")
+    public void arrivalOrder() {
+        // a wall is on a higher layer than the items, but arrived later
+        Treasure treasure = new Treasure(TILE);
+        Wood wood = new Wood(TILE);
+        Wall wall = new Wall(TILE);
+        Arrow arrow = new Arrow(TILE);
+        Arrow another = new Arrow(TILE);
+        GraphNode node = new GraphNode(treasure);
+        node.addEntity(wood);
+        node.addEntity(wall);
+        node.addEntity(arrow);
+        node.addEntity(another);
+        assertEquals(List.of(treasure, wood, wall, arrow, another), node.getEntities());
+
+        node.removeEntity(wood);
+        node.removeEntity(another);
+        assertEquals(List.of(treasure, wall, arrow), node.getEntities());
+        assertEquals(3, node.size());
+        assertEquals(arrow, node.get(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> node.get(3));
+    }
+
+    @Test
+    @DisplayName("Test membership is by identity and an entity is only held once")
+    public void identity() {
+        Wall wall = Wall.fromTerrain(2, 3);
+        GraphNode node = new GraphNode(wall);
+        node.addEntity(wall);
+        assertEquals(1, node.size());
+        // the same id, but another object
+        Wall same = Wall.fromTerrain(2, 3);
+        assertFalse(node.contains(same));
+        node.removeEntity(same);
+        assertTrue(node.contains(wall));
+    }
+
+    @Test
+    @DisplayName("Test the entity list is a read-only live view and toArray a copy")
+    public void views() {
+        Treasure treasure = new Treasure(TILE);
+        Wood wood = new Wood(TILE);
+        GraphNode node = new GraphNode(treasure);
+        List<PositionalEntity> view = node.getEntities();
+        PositionalEntity[] before = node.toArray();
+
+        node.addEntity(wood);
+        assertEquals(List.of(treasure, wood), view);
+        assertArrayEquals(new PositionalEntity[] {treasure}, before);
+        assertEquals(1, view.indexOf(wood));
+        assertThrows(UnsupportedOperationException.class, () -> view.add(treasure));
+        assertThrows(UnsupportedOperationException.class, () -> view.remove(0));
+    }
+}
@@ -0,0 +1,68 @@
+package dungeonmania.mvp;
+
+import java.util.Set;
+
+import dungeonmania.Game;
+import dungeonmania.GameBuilder;
+import dungeonmania.entities.Door;
+import dungeonmania.entities.collectables.Treasure;
+import dungeonmania.map.GameMap;
+import dungeonmania.map.MapChanges;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MapChangesTest {
+    // the player at (0, 0), treasure at (1, 0), a key at (2, 0) for the door
+    // at (2, 1) and a wall at (3, 0)
+    private static Game newGame() {
+        return new GameBuilder().setConfigName("c_swampTileTest").setDungeonName("d_mapChangesTest").buildGame();
+    }
+
+    @Test
+    @DisplayName("Test a tick's changes hold the tiles moved between and the entities that moved or left")
+    public void moveAndPickUp() {
+        Game game = newGame();
+        GameMap map = game.getMap();
+        String treasure = map.getEntities(Treasure.class).get(0).getId();
+
+        game.tick(Direction.RIGHT);
+        MapChanges changes = map.getChanges();
+        assertEquals(Set.of(Position.of(0, 0), Position.of(1, 0)), changes.getTiles());
+        assertTrue(changes.getChangedEntities().contains(map.getPlayer()));
+        assertEquals(Set.of(treasure), changes.getRemovedIds());
+
+        // the next tick starts afresh
+        game.tick(Direction.RIGHT);
+        assertEquals(Set.of(Position.of(1, 0), Position.of(2, 0)), changes.getTiles());
+        assertFalse(changes.getRemovedIds().contains(treasure));
+        assertFalse(changes.isTileChanged(Position.of(0, 0)));
+    }
+
+    @Test
+    @DisplayName("Test a door opening is a change, and a blocked move is none")
+    public void stateChange() {
+        Game game = newGame();
+        GameMap map = game.getMap();
+        Door door = map.getEntities(Door.class).get(0);
+        game.tick(Direction.RIGHT);
+        game.tick(Direction.RIGHT);
+
+        game.tick(Direction.RIGHT);
+        assertTrue(map.getChanges().isEmpty());
+
+        game.tick(Direction.DOWN);
+        assertTrue(map.getChanges().getChangedEntities().contains(door));
+        assertTrue(map.getChanges().isTileChanged(door.getPosition()));
+
+        // consumers can clear it themselves
+        map.getChanges().clear();
+        assertTrue(map.getChanges().isEmpty());
+        assertTrue(map.getChanges().getChangedEntities().isEmpty());
+    }
+}
@@ -0,0 +1,110 @@
+package dungeonmania.mvp;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Every way of finding the mercenary's path has to pick the same one among
+ * equally short paths, so these run the spec cases that tell them apart with
+ * each of them.
+ */
+public class MercenarySearchTest {
+    @Test
+    @DisplayName("Test the default search takes the first step right, down, left, then up")
+    public void dijkstra() {
+        assertSamePaths("c_swampTileTest_allies");
+    }
+
+    @Test
+    @DisplayName("Test the default search breaks each tie between first steps the same way")
+    public void dijkstraTieOrder() {
+        // M at (5, 5), P held still by a wall above them in each corner
+        assertFirstStep("d_mercenarySearchTest_downRight", new Position(6, 5));
+        assertFirstStep("d_mercenarySearchTest_downLeft", new Position(5, 6));
+        assertFirstStep("d_mercenarySearchTest_upLeft", new Position(4, 5));
+        assertFirstStep("d_mercenarySearchTest_upRight", new Position(6, 5));
+    }
+
+    @Test
+    @DisplayName("Test the shared distance field picks the same paths as the search")
+    public void sharedField() {
+        assertSamePaths("c_mercenarySearchTest_sharedField");
+    }
+
+    @Test
+    @DisplayName("Test the bucket queue picks the same paths as the default search")
+    public void bucket() {
+        assertSamePaths("c_mercenarySearchTest_bucket");
+    }
+
+    @Test
+    @DisplayName("Test A* picks the same paths as the default search")
+    public void aStar() {
+        assertSamePaths("c_mercenarySearchTest_aStar");
+    }
+
+    @Test
+    @DisplayName("Test A* with landmarks picks the same paths as the default search")
+    public void aStarWithLandmarks() {
+        assertSamePaths("c_mercenarySearchTest_landmarks");
+    }
+
+    @Test
+    @DisplayName("Test the hierarchical search picks the same paths as the default search close by")
+    public void hierarchical() {
+        assertSamePaths("c_mercenarySearchTest_hierarchical");
+    }
+
+    @Test
+    @DisplayName("Test the incremental search picks the same paths as the default search")
+    public void incremental() {
+        assertSamePaths("c_mercenarySearchTest_incremental");
+    }
+
+    private void assertSamePaths(String config) {
+        // M at (2, 2) can step left or up towards P at (0, 0), left comes first
+        DungeonManiaController dmc = new DungeonManiaController();
+        DungeonResponse res = dmc.newGame("d_mercenarySearchTest_tie", config);
+        res = dmc.tick(Direction.UP);
+        assertEquals(new Position(1, 2), getMercPos(res));
+
+        // around the swamp tile rather than through it
+        dmc = new DungeonManiaController();
+        res = dmc.newGame("d_swampTileTest_mercPathFinding", config);
+        res = dmc.tick(Direction.RIGHT);
+        assertEquals(new Position(6, 3), getMercPos(res));
+
+        DungeonManiaController ally = new DungeonManiaController();
+        res = ally.newGame("d_swampTileTest_allyPathFinding", config);
+        String mercId = TestUtils.getEntitiesStream(res, "mercenary").findFirst().get().getId();
+        res = assertDoesNotThrow(() -> ally.interact(mercId));
+        assertEquals(new Position(6, 3), getMercPos(res));
+
+        // through the portal, catching the player going back and forth
+        dmc = new DungeonManiaController();
+        res = dmc.newGame("d_portalTestDijkstra", config);
+        for (int i = 0; i < 5; i++) {
+            res = dmc.tick(Direction.DOWN);
+            res = dmc.tick(Direction.UP);
+        }
+        assertEquals(1, res.getBattles().size());
+    }
+
+    private void assertFirstStep(String dungeon, Position expected) {
+        DungeonManiaController dmc = new DungeonManiaController();
+        DungeonResponse res = dmc.newGame(dungeon, "c_swampTileTest_allies");
+        res = dmc.tick(Direction.UP);
+        assertEquals(expected, getMercPos(res));
+    }
+
+    private Position getMercPos(DungeonResponse res) {
+        return TestUtils.getEntities(res, "mercenary").get(0).getPosition();
+    }
+}
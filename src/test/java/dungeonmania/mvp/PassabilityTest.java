@@ -0,0 +1,86 @@
+package dungeonmania.mvp;
+
+import java.util.List;
+
+import dungeonmania.GameBuilder;
+import dungeonmania.entities.Boulder;
+import dungeonmania.entities.Player;
+import dungeonmania.entities.PositionalEntity;
+import dungeonmania.entities.enemies.Mercenary;
+import dungeonmania.entities.enemies.Spider;
+import dungeonmania.entities.enemies.ZombieToast;
+import dungeonmania.map.GameMap;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PassabilityTest {
+    // a key at (1, 0) for the door at (3, 0), walls, an exit, a swamp, a pair
+    // of portals, a switch, boulders and a spawner round the movers
+    private static final Position KEY = Position.of(1, 0);
+    private static final Position DOOR = Position.of(3, 0);
+
+    private static GameMap newMap() {
+        GameMap map = new GameBuilder().setConfigName("c_swampTileTest").setDungeonName("d_passabilityTest")
+            .buildGame().getMap();
+        // a boulder asks which way the player pushes it
+        map.getPlayer().setFacing(Direction.RIGHT);
+        return map;
+    }
+
+    private static List<PositionalEntity> movers(GameMap map) {
+        return List.of(map.getPlayer(), map.getEntities(Mercenary.class).get(0), map.getEntities(Spider.class).get(0),
+            map.getEntities(ZombieToast.class).get(0), map.getEntities(Boulder.class).get(0));
+    }
+
+    // every entity on the tile asked, as before the masks
+    private static boolean askEach(GameMap map, PositionalEntity mover, Position p) {
+        return map.getEntities(p).stream().allMatch(e -> e.canMoveOnto(map, mover));
+    }
+
+    private static void assertMatchesEntities(GameMap map) {
+        for (int x = -1; x <= 9; x++) {
+            for (int y = -2; y <= 6; y++) {
+                Position p = Position.of(x, y);
+                for (PositionalEntity mover : movers(map)) {
+                    assertEquals(askEach(map, mover, p), map.canMoveTo(mover, p), mover.getClass().getSimpleName() + " onto " + p);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test every mover is let onto a tile exactly when each entity on it would let it")
+    public void matchesEntities() {
+        GameMap map = newMap();
+        assertMatchesEntities(map);
+        // and again from the cached masks
+        assertMatchesEntities(map);
+    }
+
+    @Test
+    @DisplayName("Test a door is let through once the player has the key, and by everyone once open")
+    public void doorChangesState() {
+        GameMap map = newMap();
+        Player player = map.getPlayer();
+        Mercenary mercenary = map.getEntities(Mercenary.class).get(0);
+        assertFalse(map.canMoveTo(player, DOOR));
+        assertFalse(map.canMoveTo(mercenary, DOOR));
+        assertTrue(map.canMoveTo(map.getEntities(Spider.class).get(0), DOOR));
+
+        map.moveTo(player, KEY);
+        assertTrue(map.canMoveTo(player, DOOR));
+        assertFalse(map.canMoveTo(mercenary, DOOR));
+
+        map.moveTo(player, Position.of(2, 0));
+        map.moveTo(player, DOOR);
+        map.moveTo(player, Position.of(4, 0));
+        assertTrue(map.canMoveTo(mercenary, DOOR));
+        assertMatchesEntities(map);
+    }
+}
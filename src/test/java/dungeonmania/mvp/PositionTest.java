@@ -0,0 +1,77 @@
+package dungeonmania.mvp;
+
+import java.util.List;
+import java.util.Objects;
+
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PositionTest {
+    private static final int[][] COORDS = {
+        {0, 0}, {3, -7}, {-1, -1}, {-5, 12}, {Integer.MAX_VALUE, Integer.MIN_VALUE}, {Integer.MIN_VALUE, -1}};
+
+    @Test
+    @DisplayName("Test packed coordinates unpack to the same x and y, negatives and extremes included")
+    public void packRoundTrip() {
+        for (int[] c : COORDS) {
+            long packed = Position.pack(c[0], c[1]);
+            assertEquals(c[0], Position.unpackX(packed));
+            assertEquals(c[1], Position.unpackY(packed));
+            assertEquals(Position.of(c[0], c[1]), Position.ofPacked(packed));
+            // the layer is dropped, as it is for equals
+            assertEquals(packed, new Position(c[0], c[1], 3).pack());
+        }
+        assertEquals(Position.pack(-6, 14), Position.translatePacked(Position.pack(-5, 12), -1, 2));
+    }
+
+    @Test
+    @DisplayName("Test positions hash as Objects.hash(x, y) and ignore the layer when compared")
+    public void hashAndEquals() {
+        for (int[] c : COORDS) {
+            Position p = new Position(c[0], c[1]);
+            assertEquals(Objects.hash(c[0], c[1]), p.hashCode());
+            assertEquals(p, new Position(c[0], c[1], 2));
+            assertEquals(p, Position.of(c[0], c[1]));
+        }
+    }
+
+    @Test
+    @DisplayName("Test positions on layer 0 are shared rather than built again")
+    public void interned() {
+        Position p = Position.of(4, 9);
+        assertSame(p, Position.of(4, 9));
+        assertSame(p, Position.translateBy(Position.of(4, 8), Direction.DOWN));
+        assertSame(p, new Position(4, 9, 2).asLayer(0));
+
+        // other layers keep theirs
+        Position layered = Position.translateBy(new Position(4, 8, 2), Direction.DOWN);
+        assertEquals(2, layered.getLayer());
+        assertEquals(p, layered);
+    }
+
+    @Test
+    @DisplayName("Test neighbour lists are read-only and in the packed neighbour order")
+    public void neighbours() {
+        Position p = Position.of(-3, 5);
+        List<Position> adjacent = p.getAdjacentPositions();
+        assertEquals(Position.ADJACENT_COUNT, adjacent.size());
+        for (int i = 0; i < Position.ADJACENT_COUNT; i++) {
+            assertEquals(adjacent.get(i), Position.ofPacked(Position.adjacentPacked(p.pack(), i)));
+        }
+        assertEquals(Position.of(-4, 4), adjacent.get(0));
+        assertEquals(Position.of(-4, 5), adjacent.get(7));
+
+        List<Position> cardinal = p.getCardinallyAdjacentPositions();
+        assertEquals(List.of(Position.of(-3, 4), Position.of(-2, 5), Position.of(-3, 6), Position.of(-4, 5)), cardinal);
+        for (int i = 0; i < Position.CARDINAL_COUNT; i++) {
+            assertEquals(cardinal.get(i), Position.ofPacked(Position.cardinalPacked(p.pack(), i)));
+        }
+        assertThrows(UnsupportedOperationException.class, () -> cardinal.add(p));
+    }
+}
@@ -0,0 +1,81 @@
+package dungeonmania.mvp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import dungeonmania.GameBuilder;
+import dungeonmania.entities.PositionalEntity;
+import dungeonmania.entities.Wall;
+import dungeonmania.entities.enemies.Enemy;
+import dungeonmania.map.GameMap;
+import dungeonmania.util.Position;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RangeQueryTest {
+    // entities scattered over x and y from -40 to 40, across chunk boundaries
+    private static GameMap newMap() {
+        return new GameBuilder().setConfigName("c_swampTileTest").setDungeonName("d_rangeQueryTest")
+            .buildGame().getMap();
+    }
+
+    // what a nested x/y loop over the tiles finds
+    private static <T extends PositionalEntity> List<String> scan(GameMap map, int minX, int minY, int maxX, int maxY,
+            Class<T> type, int manhattan, Position centre) {
+        List<String> res = new ArrayList<>();
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                if (centre != null && Math.abs(x - centre.getX()) + Math.abs(y - centre.getY()) > manhattan) continue;
+                for (PositionalEntity e : map.getEntities(Position.of(x, y))) {
+                    if (type.isInstance(e)) res.add(e.getId());
+                }
+            }
+        }
+        return res;
+    }
+
+    private static List<String> ids(List<? extends PositionalEntity> entities) {
+        return entities.stream().map(PositionalEntity::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("Test a rectangle finds what a loop over its tiles does, in the same order")
+    public void rectangle() {
+        GameMap map = newMap();
+        int[][] rects = {{-3, -3, 3, 3}, {20, 20, 35, 35}, {-50, -50, 50, 50}, {-40, 5, 40, 5}, {5, 5, 4, 4}};
+        for (int[] r : rects) {
+            assertEquals(scan(map, r[0], r[1], r[2], r[3], PositionalEntity.class, 0, null),
+                ids(map.getEntitiesInRectangle(r[0], r[1], r[2], r[3])));
+            assertEquals(scan(map, r[0], r[1], r[2], r[3], Wall.class, 0, null),
+                ids(map.getEntitiesInRectangle(r[0], r[1], r[2], r[3], Wall.class)));
+        }
+        // two entities on one tile, in the order they arrived
+        assertEquals(2, map.getEntitiesInRectangle(31, 31, 31, 31).size());
+    }
+
+    @Test
+    @DisplayName("Test a square and a diamond round a tile find what a loop over their tiles does")
+    public void squareAndManhattan() {
+        GameMap map = newMap();
+        Position[] centres = {Position.of(0, 0), Position.of(31, 31), Position.of(-17, 22)};
+        int found = 0;
+        for (Position c : centres) {
+            for (int radius : new int[] {0, 1, 6, 20}) {
+                int minX = c.getX() - radius;
+                int minY = c.getY() - radius;
+                int maxX = c.getX() + radius;
+                int maxY = c.getY() + radius;
+                assertEquals(scan(map, minX, minY, maxX, maxY, PositionalEntity.class, 0, null),
+                    ids(map.getEntitiesWithinSquare(c, radius)));
+                List<String> diamond = scan(map, minX, minY, maxX, maxY, Enemy.class, radius, c);
+                assertEquals(diamond, ids(map.getEntitiesWithinManhattan(c, radius, Enemy.class)));
+                found += diamond.size();
+            }
+        }
+        assertTrue(found > 0);
+    }
+}
@@ -0,0 +1,97 @@
+package dungeonmania.mvp;
+
+import java.util.List;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.response.models.EntityResponse;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RegionPagerTest {
+    // regions of 4 by 4 loaded one region round the player, which starts at
+    // (0, 0) next to a key and its door, with a wall and wood at x = 20 and
+    // treasure further on
+    private static final String DUNGEON = "d_regionPagerTest";
+    private static final String CONFIG = "c_regionPagerTest";
+
+    private static DungeonResponse walk(DungeonManiaController dmc, DungeonResponse res, Direction direction, int toX) {
+        while (TestUtils.getPlayerPos(res).getX() != toX) res = dmc.tick(direction);
+        return res;
+    }
+
+    private static int count(DungeonResponse res, String type) {
+        return TestUtils.getEntities(res, type).size();
+    }
+
+    @Test
+    @DisplayName("Test every entity is loaded up front without region paging")
+    public void offByDefault() {
+        DungeonManiaController dmc = new DungeonManiaController();
+        DungeonResponse res = dmc.newGame(DUNGEON, "c_swampTileTest");
+        assertEquals(1, count(res, "wall"));
+        assertEquals(1, count(res, "wood"));
+    }
+
+    @Test
+    @DisplayName("Test passive entities are loaded once the player comes within a region of them")
+    public void loadedWhenNear() {
+        DungeonManiaController dmc = new DungeonManiaController();
+        DungeonResponse res = dmc.newGame(DUNGEON, CONFIG);
+        assertEquals(0, count(res, "wall"));
+        assertEquals(0, count(res, "wood"));
+        assertEquals(1, count(res, "door"));
+        // counted by goals, so always loaded
+        assertEquals(1, count(res, "treasure"));
+
+        res = walk(dmc, res, Direction.RIGHT, 15);
+        assertEquals(0, count(res, "wall"));
+        res = dmc.tick(Direction.RIGHT);
+        assertEquals(1, count(res, "wall"));
+        assertEquals(1, count(res, "wood"));
+    }
+
+    @Test
+    @DisplayName("Test entities held back are saved, and come back as they were after loading")
+    public void savedAndLoaded() {
+        DungeonManiaController dmc = new DungeonManiaController();
+        DungeonResponse res = dmc.newGame(DUNGEON, CONFIG);
+        // through the door, opening it, and out of range of it
+        res = walk(dmc, res, Direction.RIGHT, 12);
+        assertEquals(1, count(res, "door_open"));
+        dmc.saveGame("regionPagerTest");
+
+        res = dmc.loadGame("regionPagerTest");
+        assertEquals(Position.of(12, 0), TestUtils.getPlayerPos(res));
+        assertEquals(0, count(res, "door"));
+        assertEquals(0, count(res, "wall"));
+
+        res = walk(dmc, res, Direction.LEFT, 7);
+        assertEquals(1, count(res, "door_open"));
+        res = walk(dmc, res, Direction.RIGHT, 16);
+        assertEquals(1, count(res, "wall"));
+        assertEquals(1, count(res, "wood"));
+    }
+
+    @Test
+    @DisplayName("Test walls round a spawner or a portal far from the player block as they do without paging")
+    public void loadedRoundSpawnersAndPortals() {
+        // a spawner at (40, 0) and the far end of the portal at (60, 20) each
+        // walled in on three sides, the player next to the near end at (2, 0)
+        for (String config : new String[] {"c_regionPagerTest_spawn", "c_swampTileTest"}) {
+            DungeonManiaController dmc = new DungeonManiaController();
+            DungeonResponse res = dmc.newGame("d_regionPagerTest_spawn", config);
+            res = dmc.tick(Direction.RIGHT);
+            // the portal needs every side of the far end open
+            assertEquals(Position.of(1, 0), TestUtils.getPlayerPos(res), config);
+            if (config.equals("c_swampTileTest")) continue;
+            List<EntityResponse> zombies = TestUtils.getEntities(res, "zombie_toast");
+            assertEquals(1, zombies.size());
+            assertEquals(Position.of(40, 1), zombies.get(0).getPosition());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package dungeonmania.mvp;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.GameBuilder;
+import dungeonmania.entities.PositionalEntity;
+import dungeonmania.entities.Wall;
+import dungeonmania.entities.collectables.Treasure;
+import dungeonmania.entities.enemies.Spider;
+import dungeonmania.map.GameMap;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.response.models.EntityResponse;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TerrainWallTest {
+    // walls at (1, 0), (1, 1), (40, -40) and (-1, 0), the last with treasure on it
+    private static final Position WALL = Position.of(1, 0);
+    private static final Position SHARED = Position.of(-1, 0);
+
+    private static GameMap newMap() {
+        return new GameBuilder().setConfigName("c_swampTileTest").setDungeonName("d_terrainWallTest")
+            .buildGame().getMap();
+    }
+
+    @Test
+    @DisplayName("Test walls are handed out with an id that only depends on where they are")
+    public void stableIds() {
+        GameMap map = newMap();
+        assertEquals(4, map.countEntities(Wall.class));
+        assertEquals(4, map.getEntities(Wall.class).size());
+
+        List<PositionalEntity> here = map.getEntities(WALL);
+        assertEquals(1, here.size());
+        Wall wall = (Wall) here.get(0);
+        assertTrue(wall.isTerrain());
+        assertEquals(Wall.terrainId(1, 0), wall.getId());
+        assertEquals(wall.getId(), map.getEntities(WALL).get(0).getId());
+        assertEquals(WALL, map.getEntity(wall.getId()).getPosition());
+        assertTrue(map.hasEntity(wall));
+
+        // the wall comes first on a tile it shares
+        List<PositionalEntity> shared = map.getEntities(SHARED);
+        assertEquals(2, shared.size());
+        assertTrue(shared.get(0) instanceof Wall);
+        assertTrue(shared.get(1) instanceof Treasure);
+    }
+
+    @Test
+    @DisplayName("Test walls only let spiders on, and let everyone on once destroyed")
+    public void blocksAndDestroyed() {
+        GameMap map = newMap();
+        Spider spider = map.getEntities(Spider.class).get(0);
+        assertFalse(map.canMoveTo(map.getPlayer(), WALL));
+        assertTrue(map.canMoveTo(spider, WALL));
+
+        map.destroyEntity(map.getEntities(WALL).get(0));
+        assertTrue(map.getEntities(WALL).isEmpty());
+        assertTrue(map.canMoveTo(map.getPlayer(), WALL));
+        assertEquals(3, map.countEntities(Wall.class));
+
+        map.destroyEntity(map.getEntities(SHARED).get(0));
+        assertEquals(1, map.getEntities(SHARED).size());
+        assertEquals(2, map.countEntities(Wall.class));
+        assertTrue(map.checkIndexes());
+    }
+
+    @Test
+    @DisplayName("Test walls are in the response with the ids the map hands out, and stop the player")
+    public void inResponse() {
+        DungeonManiaController dmc = new DungeonManiaController();
+        DungeonResponse res = dmc.newGame("d_terrainWallTest", "c_swampTileTest");
+        List<EntityResponse> walls = TestUtils.getEntities(res, "wall");
+        assertEquals(4, walls.size());
+        assertEquals(walls.stream().map(w -> Wall.terrainId(w.getPosition().getX(), w.getPosition().getY()))
+            .collect(Collectors.toList()), walls.stream().map(EntityResponse::getId).collect(Collectors.toList()));
+
+        res = dmc.tick(Direction.RIGHT);
+        assertEquals(Position.of(0, 0), TestUtils.getPlayerPos(res));
+    }
+}
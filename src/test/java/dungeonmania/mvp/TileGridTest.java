@@ -0,0 +1,111 @@
+package dungeonmania.mvp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import dungeonmania.entities.collectables.Treasure;
+import dungeonmania.map.GraphNode;
+import dungeonmania.map.TileGrid;
+import dungeonmania.util.Position;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TileGridTest {
+    private static GraphNode node(Position p) {
+        return new GraphNode(new Treasure(p));
+    }
+
+    private static List<Position> order(TileGrid grid) {
+        List<Position> res = new ArrayList<>();
+        grid.forEach(p -> res.add(Position.ofPacked(p)));
+        return res;
+    }
+
+    @Test
+    @DisplayName("Test tiles are found across chunks and at negative coordinates")
+    public void putGetRemove() {
+        TileGrid grid = new TileGrid();
+        Position[] tiles = {Position.of(0, 0), Position.of(31, 31), Position.of(32, 0), Position.of(-1, -1),
+            Position.of(-33, 100)};
+        Map<Position, GraphNode> put = new HashMap<>();
+        for (Position p : tiles) {
+            put.put(p, node(p));
+            grid.put(p, put.get(p));
+        }
+        assertEquals(tiles.length, grid.size());
+        for (Position p : tiles) assertSame(put.get(p), grid.get(p));
+        assertNull(grid.get(1, 0));
+        assertNull(grid.get(0, -1));
+        assertFalse(grid.contains(Position.of(-32, 100)));
+
+        grid.remove(Position.of(-1, -1));
+        assertNull(grid.get(-1, -1));
+        assertFalse(grid.contains(-1, -1));
+        assertEquals(tiles.length - 1, grid.size());
+    }
+
+    @Test
+    @DisplayName("Test iteration keeps the order of a HashMap keyed by position")
+    public void hashMapOrder() {
+        TileGrid grid = new TileGrid();
+        Map<Position, Boolean> map = new HashMap<>();
+        Random random = new Random(4);
+        List<Position> added = new ArrayList<>();
+        // enough tiles for the order to be rebuilt at a few sizes
+        for (int i = 0; i < 300; i++) {
+            Position p = Position.of(random.nextInt(200) - 100, random.nextInt(200) - 100);
+            if (map.containsKey(p)) continue;
+            map.put(p, true);
+            added.add(p);
+            // walls take their place in the order like any other tile
+            if (i % 3 == 0) grid.addWall(p);
+            else grid.put(p, node(p));
+        }
+        assertEquals(new ArrayList<>(map.keySet()), order(grid));
+
+        // gone and back again goes to the end of its bucket
+        for (int i = 0; i < added.size(); i += 7) {
+            Position p = added.get(i);
+            map.remove(p);
+            if (!grid.removeWall(p)) grid.remove(p);
+        }
+        for (int i = 0; i < added.size(); i += 14) {
+            Position p = added.get(i);
+            map.put(p, true);
+            grid.put(p, node(p));
+        }
+        assertEquals(new ArrayList<>(map.keySet()), order(grid));
+    }
+
+    @Test
+    @DisplayName("Test a rectangle visits the occupied tiles inside it and no others")
+    public void forEachInRect() {
+        TileGrid grid = new TileGrid();
+        for (int x = -40; x <= 40; x += 3) {
+            for (int y = -40; y <= 40; y += 5) grid.put(Position.of(x, y), node(Position.of(x, y)));
+        }
+        // a small rectangle probes chunk by chunk, a large one walks the chunk list
+        int[][] rects = {{-2, -2, 2, 2}, {30, -35, 33, -30}, {-100, -100, 100, 100}, {-40, 0, 40, 0}};
+        for (int[] r : rects) {
+            List<Position> expected = new ArrayList<>();
+            for (int x = r[0]; x <= r[2]; x++) {
+                for (int y = r[1]; y <= r[3]; y++) {
+                    if (grid.contains(x, y)) expected.add(Position.of(x, y));
+                }
+            }
+            List<Position> visited = new ArrayList<>();
+            grid.forEachInRect(r[0], r[1], r[2], r[3], p -> visited.add(Position.ofPacked(p)));
+            assertEquals(expected.size(), visited.size());
+            assertTrue(visited.containsAll(expected));
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package dungeonmania.mvp;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import dungeonmania.DungeonManiaController;
+import dungeonmania.GameAction;
 import dungeonmania.exceptions.InvalidActionException;
 import dungeonmania.response.models.DungeonResponse;
 import dungeonmania.util.Direction;
@@ -403,4 +407,27 @@ public class TimeTravelTest {
         assertEquals(TestUtils.getEntities(res, "older_player").size(), 0);
         assertEquals(res.getBattles().size(), 1);
     }
+
+    @Test
+    @DisplayName("Rewinding into ticks runTicks skipped replays the player from the state kept")
+    public void rewindIntoSkippedTicks() {
+        DungeonManiaController dmc = new DungeonManiaController();
+        dmc.newGame("d_timeTravelTest_runTicks", "c_generateTest");
+        List<GameAction> actions = new ArrayList<>();
+        for (int i = 0; i < 10; i++) actions.add(GameAction.move(Direction.RIGHT));
+        actions.add(GameAction.move(Direction.DOWN));
+        actions.add(GameAction.move(Direction.LEFT));
+        assertDoesNotThrow(() -> dmc.runTicks(actions, 0));
+
+        // tick 11 was not kept, tick 10 was
+        DungeonResponse res = dmc.rewind(1);
+        assertEquals(new Position(10, 0), TestUtils.getEntityPos(res, "older_player"));
+        assertEquals(new Position(9, 1), TestUtils.getPlayerPos(res));
+
+        // and goes on from there as the player did, down then left
+        res = dmc.tick(Direction.DOWN);
+        assertEquals(new Position(10, 1), TestUtils.getEntityPos(res, "older_player"));
+        res = dmc.tick(Direction.DOWN);
+        assertEquals(new Position(9, 1), TestUtils.getEntityPos(res, "older_player"));
+    }
 }
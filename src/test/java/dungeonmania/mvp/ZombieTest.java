@@ -11,6 +11,7 @@ import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -99,6 +100,23 @@ public class ZombieTest {
         }
     }
 
+    @Test
+    @DisplayName("Testing that zombies spawn and move the same way in games with the same seed")
+    public void seededToastSpawn() {
+        DungeonManiaController first = new DungeonManiaController();
+        DungeonManiaController second = new DungeonManiaController();
+        DungeonResponse firstRes = first.newGame(
+            "d_zombieTest_multipleToastSpawn", "c_zombieTest_multipleToastSpawn", 42);
+        DungeonResponse secondRes = second.newGame(
+            "d_zombieTest_multipleToastSpawn", "c_zombieTest_multipleToastSpawn", 42);
+
+        for (int i = 1; i <= 10; ++i) {
+            firstRes = first.tick(Direction.UP);
+            secondRes = second.tick(Direction.UP);
+            assertEquals(zombiePositions(firstRes), zombiePositions(secondRes));
+        }
+    }
+
     @Test
     @Tag("10-5")
     @DisplayName("Testing zombie toast spawners spawn zombies in cardinally adjacent open squares")
@@ -178,4 +196,8 @@ public class ZombieTest {
     private List<EntityResponse> getZombies(DungeonResponse res) {
         return TestUtils.getEntities(res, "zombie_toast");
     }
+
+    private List<String> zombiePositions(DungeonResponse res) {
+        return getZombies(res).stream().map(e -> e.getPosition().toString()).sorted().collect(Collectors.toList());
+    }
 }